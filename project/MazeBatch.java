@@ -0,0 +1,192 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+
+/**
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ * Runs many parameter files in one JVM on a pool of threads, so a suite of jobs
+ * pays for JVM startup and JIT warmup once instead of once per file, and writes
+ * a CSV line of results per job as each one finishes.
+ *
+ * A folder runs every .para file in it. Any other file is a manifest listing
+ * parameter files one per line, relative to the manifest, with blank lines and
+ * lines starting with # skipped. Jobs are never visualised and what they print
+ * is dropped, the results file has what they found.
+ */
+class MazeBatch {
+
+  /**
+   * Name of class, used in error messages.
+   */
+  protected static final String progName = "MazeBatch";
+
+  /**
+   * First line of the results file.
+   */
+  protected static final String HEADER = "job,status,type,generator,solver,rows,cols,seed,"
+    + "perfect,solved,cellsExplored,pathLength,valid,generateMs,checkMs,solveMs,validateMs,totalMs,message";
+
+  /**
+   * Print help/usage message.
+   */
+  public static void usage(String progName) {
+    System.err.println(progName + ": [folder or manifest] [results fileName] <threads>");
+    System.err.println("<threads> = number of jobs run at once, the number of processors if left out");
+    System.exit(1);
+  } // end of usage()
+
+  /**
+   * Main function of the batch runner.
+   * @param args Folder or manifest of parameter files, results file and optionally the number of threads.
+   */
+  public static void main(String[] args) {
+    if (args.length != 2 && args.length != 3) {
+      System.err.println("Incorrect number of arguments.");
+      usage(progName);
+    }
+
+    int numThreads = Runtime.getRuntime().availableProcessors();
+    if (args.length == 3) {
+      try {
+        numThreads = Integer.parseInt(args[2]);
+      } catch (NumberFormatException e) {
+        numThreads = 0;
+      }
+      if (numThreads < 1) {
+        System.err.println("Number of threads must be at least 1.");
+        usage(progName);
+      }
+    }
+
+    List<Path> jobs = null;
+    try {
+      jobs = listJobs(Paths.get(args[0]));
+    } catch (IOException e) {
+      System.err.println("Jobs can't be listed: " + e.getMessage());
+      usage(progName);
+    }
+
+    // jobs print their progress and validation to System.out, which would mix between threads
+    PrintStream stdout = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+
+    long start = System.nanoTime();
+    int numFailed = 0;
+    ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+    CompletionService<String[]> done = new ExecutorCompletionService<>(pool);
+    for (Path job : jobs)
+      done.submit(() -> runJob(job));
+
+    // results are written on this thread in the order jobs finish, so a crash keeps the finished ones
+    try (BufferedWriter results = Files.newBufferedWriter(Paths.get(args[1]))) {
+      results.write(HEADER);
+      results.newLine();
+      for (int i = 0; i < jobs.size(); i++) {
+        String fields[] = done.take().get();
+        if (!fields[1].equals("ok"))
+          numFailed++;
+        results.write(toCsv(fields));
+        results.newLine();
+        results.flush();
+      }
+    } catch (IOException e) {
+      System.err.println("Results can't be written: " + e.getMessage());
+      usage(progName);
+    } catch (InterruptedException | ExecutionException e) {
+      System.err.println("Batch was stopped: " + e);
+      usage(progName);
+    } finally {
+      pool.shutdownNow();
+      System.setOut(stdout);
+    }
+
+    stdout.printf("%d jobs run, %d failed, in %.1f s.%n", jobs.size(), numFailed, (System.nanoTime() - start) / 1e9);
+    stdout.println("Results are written to " + args[1] + ".");
+    if (numFailed > 0)
+      System.exit(1);
+  } // end of main()
+
+  /**
+   * @param source Folder of parameter files or manifest listing them.
+   * @return Parameter files to run, in name order for a folder and in listed order for a manifest.
+   */
+  protected static List<Path> listJobs(Path source) throws IOException {
+    List<Path> jobs = new ArrayList<Path>();
+    if (Files.isDirectory(source)) {
+      try (Stream<Path> files = Files.list(source)) {
+        files.filter(file -> file.getFileName().toString().endsWith(".para")).sorted().forEach(jobs::add);
+      }
+      return jobs;
+    }
+
+    Path base = source.toAbsolutePath().getParent();
+    for (String line : Files.readAllLines(source)) {
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#"))
+        continue;
+      Path job = Paths.get(line);
+      jobs.add(job.isAbsolute() || base == null ? job : base.resolve(job).normalize());
+    }
+    return jobs;
+  } // end of listJobs()
+
+  /**
+   * Run a parameter file without visualising it.
+   * @return Fields of its line in the results file, in the order of HEADER.
+   */
+  protected static String[] runJob(Path job) {
+    String status = "ok";
+    String message = "";
+    MazeTester.JobResult result = null;
+    long start = System.nanoTime();
+    try {
+      result = MazeTester.run(job.toString(), false, System.out);
+    } catch (MazeTester.JobException e) {
+      status = "failed";
+      message = e.getMessage();
+    } catch (RuntimeException | OutOfMemoryError e) {
+      // a job running out of memory frees it when it stops, so the rest can still run
+      status = "error";
+      message = e.toString();
+    }
+    long totalNanos = System.nanoTime() - start;
+
+    if (result == null)
+      return new String[] { job.toString(), status, "", "", "", "", "", "", "", "", "", "", "",
+        "", "", "", "", millis(totalNanos), message };
+    return new String[] { job.toString(), status, result.mazeType, result.generatorName, result.solverName,
+      Integer.toString(result.rowNum), Integer.toString(result.colNum), Long.toString(result.seed),
+      Boolean.toString(result.isPerfect), Boolean.toString(result.isSolved),
+      result.cellsExplored < 0 ? "" : Integer.toString(result.cellsExplored),
+      result.pathLength < 0 ? "" : Integer.toString(result.pathLength),
+      Boolean.toString(result.isValid), millis(result.generateNanos), millis(result.checkNanos),
+      millis(result.solveNanos), millis(result.validateNanos), millis(totalNanos), message };
+  } // end of runJob()
+
+  protected static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+  } // end of millis()
+
+  /**
+   * @return Fields joined by commas, quoted where they hold a comma, quote or line break.
+   */
+  protected static String toCsv(String fields[]) {
+    StringBuilder line = new StringBuilder();
+    for (int i = 0; i < fields.length; i++) {
+      if (i > 0)
+        line.append(',');
+      String field = fields[i];
+      if (field.indexOf(',') >= 0 || field.indexOf('"') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0)
+        line.append('"').append(field.replace("\"", "\"\"")).append('"');
+      else
+        line.append(field);
+    }
+    return line.toString();
+  } // end of toCsv()
+
+} // end of class MazeBatch
@@ -1,4 +1,6 @@
 import java.io.*;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
 import java.util.*;
 
 import maze.*;
@@ -34,6 +36,47 @@ class MazeTester {
     System.exit(1);
   } // end of usage()
 
+  /**
+   * Construct a generator from its name in the parameter file.
+   * Generators may take an option after a colon, e.g. growingTree:newest or tiled:kruskal.
+   * @param name Name of the generator, with its option if any.
+   * @return The generator, or null if the name is unknown.
+   * @throws IllegalArgumentException If the option isn't valid.
+   */
+  public static MazeGenerator createGenerator(String name) {
+    String option = null;
+    if (name.indexOf(':') >= 0) {
+      option = name.substring(name.indexOf(':') + 1);
+      name = name.substring(0, name.indexOf(':'));
+    }
+
+    switch (name) {
+    case "modiPrim":
+      return new ModifiedPrimsGenerator();
+    case "recurBack":
+      return new RecursiveBacktrackerGenerator();
+    case "growingTree":
+      // option is the cell selection policy, see CellSelector.parse()
+      if (option == null)
+        return new GrowingTreeGenerator();
+      return new GrowingTreeGenerator(CellSelector.parse(option));
+    case "kruskal":
+      return new KruskalGenerator();
+    case "eller":
+      return new EllerGenerator();
+    case "tiled":
+      // option is the generator used inside each tile, with its own option if any
+      if (option == null)
+        throw new IllegalArgumentException("Tiled generator needs a tile generator, e.g. tiled:kruskal.");
+      MazeGenerator tileGen = createGenerator(option);
+      if (tileGen == null)
+        throw new IllegalArgumentException("Unknown tile generator name.");
+      return new ParallelTiledGenerator(tileGen);
+    default:
+      return null;
+    }
+  } // end of createGenerator()
+
   /**
    * Main function of tester.
    * @param args Two arguments which are input filename and "y/n" indicating whether to visualize the maze.
@@ -45,8 +88,6 @@ class MazeTester {
       usage(progName);
     }
 
-    String fName = args[0];
-
     // flag to indicate whether we visualise maze or not
     boolean isVisu = false;
     // note that drawFtPrt(Cell) need to be called for validating the solution
@@ -62,6 +103,62 @@ class MazeTester {
       usage(progName);
     }
 
+    try {
+      run(args[0], isVisu, outStream);
+    } catch (JobException e) {
+      System.err.println(e.getMessage());
+      usage(progName);
+    }
+  } // end of main()
+
+  /**
+   * Thrown when a parameter file can't be run, with the message to show.
+   */
+  static class JobException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    JobException(String message) {
+      super(message);
+    } // end of JobException()
+
+  } // end of class JobException
+
+  /**
+   * What running a parameter file found, filled in as far as the run got.
+   * Times are in nanoseconds, 0 for steps not run.
+   */
+  static class JobResult {
+    String mazeType;
+    String generatorName;
+    String solverName;
+    int rowNum;
+    int colNum;
+    long seed;
+    boolean isPerfect = false;
+    boolean isSolved = false;
+    boolean isValid = false;
+    // -1 if the maze wasn't solved, or not validated
+    int cellsExplored = -1;
+    int pathLength = -1;
+    long generateNanos = 0;
+    long checkNanos = 0;
+    long solveNanos = 0;
+    long validateNanos = 0;
+  } // end of class JobResult
+
+  /**
+   * Generate or load, check, draw and solve the maze described by a parameter file,
+   * without exiting on errors so many files can be run in one JVM (see MazeBatch).
+   * @param fName Name of the parameter file.
+   * @param isVisu Whether to visualise the maze.
+   * @param out Stream progress messages are printed to.
+   * @return What the run found.
+   * @throws JobException If the file can't be run.
+   */
+  static JobResult run(String fName, boolean isVisu, PrintStream out) throws JobException {
+    JobResult result = new JobResult();
+
     // default values for parameters
     String mazeType = "normal";
     String mazeGeneratorName = "recurBack";
@@ -73,139 +170,378 @@ class MazeTester {
     int exitR = 0;
     int exitC = 1;
     List<int[]> tunnelList = new ArrayList<int[]>();
+    // seed for generator and solver, random unless given in the file
+    long seed = new SplittableRandom().nextLong();
 
-    File fin = new File(fName);
+    // saved maze to load instead of generating one, and file to save the maze to
+    String loadFile = null;
+    String saveFile = null;
+    // whether the saved maze is mapped from the file rather than read onto the heap
+    boolean isMapped = false;
+    // PNG file to draw the maze to, and the width of a cell in it
+    String pngFile = null;
+    int pngCellSize = 4;
+    // Deep Zoom file to export the maze to as a tile pyramid, drawn at pngCellSize
+    String dziFile = null;
+    // frames per second a visualised generator and solver are animated at, 0 to draw each change as it is made
+    double framesPerSecond = 0;
+    // whether the maze is drawn to the PNG as it is generated, without being kept
+    boolean isStreamed = false;
+    // CSV file the time, CPU and allocation of each phase of the run are written to
+    String profileFile = null;
 
     // read input parameter file
-    try {
-      Scanner scanner = new Scanner(fin);
-      mazeType = scanner.next();
+    try (ParaTokenizer tokens = new ParaTokenizer(fName)) {
+      mazeType = tokens.next();
 
-      mazeGeneratorName = scanner.next();
-      mazeSolverName = scanner.next();
+      mazeGeneratorName = tokens.next();
+      mazeSolverName = tokens.next();
 
-      rowNum = Integer.parseInt(scanner.next());
-      colNum = Integer.parseInt(scanner.next());
+      rowNum = tokens.nextInt();
+      colNum = tokens.nextInt();
 
-      entR = Integer.parseInt(scanner.next());
-      entC = Integer.parseInt(scanner.next());
-      exitR = Integer.parseInt(scanner.next());
-      exitC = Integer.parseInt(scanner.next());
+      entR = tokens.nextInt();
+      entC = tokens.nextInt();
+      exitR = tokens.nextInt();
+      exitC = tokens.nextInt();
 
-      // add tunnels
-      while (scanner.hasNext()) {
-        int temp[]= {Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next()), Integer.parseInt(scanner.next())};
-        tunnelList.add(temp);
+      // add tunnels, and the optional "seed <number>", "load <file>", "map <file>", "save <file>",
+      // "png <file>", "pngCellSize <pixels>", "dzi <file>", "fps <frames>",
+      // "profile <file>" and "stream" anywhere among them
+      while (tokens.hasNext()) {
+        if (tokens.hasNextNumber()) {
+          int temp[]= {tokens.nextInt(), tokens.nextInt(), tokens.nextInt(), tokens.nextInt()};
+          tunnelList.add(temp);
+          continue;
+        }
+        String token = tokens.next();
+        switch (token) {
+        case "seed":
+          seed = tokens.nextLong();
+          break;
+        case "load":
+          loadFile = tokens.next();
+          isMapped = false;
+          break;
+        case "map":
+          loadFile = tokens.next();
+          isMapped = true;
+          break;
+        case "save":
+          saveFile = tokens.next();
+          break;
+        case "png":
+          pngFile = tokens.next();
+          break;
+        case "pngCellSize":
+          pngCellSize = tokens.nextInt();
+          break;
+        case "dzi":
+          dziFile = tokens.next();
+          break;
+        case "fps":
+          framesPerSecond = tokens.nextDouble();
+          break;
+        case "stream":
+          isStreamed = true;
+          break;
+        case "profile":
+          profileFile = tokens.next();
+          break;
+        default:
+          throw new JobException("Unknown parameter " + token + ".");
+        }
       }
-      scanner.close();
-    } catch (FileNotFoundException e) {
-      System.err.println("Input file doesn't exist.");
-      usage(progName);
+    } catch (NoSuchFileException e) {
+      throw new JobException("Input file doesn't exist.");
+    } catch (NoSuchElementException | NumberFormatException e) {
+      throw new JobException("Malformed parameter file: " + e.getMessage());
+    } catch (IOException e) {
+      throw new JobException("Input file can't be read: " + e.getMessage());
     }
+    result.mazeType = mazeType;
+    result.generatorName = mazeGeneratorName;
+    result.solverName = mazeSolverName;
+    result.rowNum = rowNum;
+    result.colNum = colNum;
+    result.seed = seed;
+    PhaseProfiler profiler = new PhaseProfiler();
 
-    // check rowNum and colNum
-    if (rowNum < 1 || colNum < 1) {
-      System.err.println("Row or column number of maze must be at least 1.");
-      usage(progName);
+    // mazes too large for memory are drawn row by row as Eller's algorithm generates them, and not solved
+    if (isStreamed) {
+      if (!mazeGeneratorName.equals("eller") || !mazeType.equals("normal") || pngFile == null) {
+        throw new JobException("Only normal mazes generated by eller can be streamed, and a png file is needed.");
+      }
+      out.println("EllerGenerator is generating the maze.");
+      out.println("Seed = " + seed);
+      profiler.begin("generate");
+      // rows come from row 0 up, so the picture is upside down
+      try (MazeRowRenderer renderer = new MazeRowRenderer(new BufferedOutputStream(new FileOutputStream(pngFile)),
+          rowNum, colNum, pngCellSize, false, entR, entC, exitR, exitC)) {
+        new EllerGenerator().generate(rowNum, colNum, seed, renderer::acceptRow);
+      } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+        throw new JobException("Maze can't be drawn: " + e.getMessage());
+      }
+      result.generateNanos = profiler.end();
+      out.println("Maze is drawn upside down to " + pngFile + ".");
+      writeProfile(profiler, profileFile, out);
+      return result;
     }
 
-    // construct maze object
     Maze maze = null;
-    switch (mazeType) {
-    case "normal":
-      maze = new NormalMaze();
-      break;
-    case "tunnel":
-      maze = new TunnelMaze();
-      break;
-    case "hex":
-      maze = new HexMaze();
-      break;
-    default:
-      System.err.println("Unknown maze type.");
-      usage(progName);
+    if (loadFile != null) {
+      // a saved maze replaces the type, size, entrance, exit, tunnels and seed in the parameter file
+      profiler.begin("load");
+      try {
+        if (isMapped) {
+          MappedMaze mapped = MappedMaze.open(Paths.get(loadFile), false);
+          maze = mapped;
+          seed = mapped.seed;
+        }
+        else {
+          MazeFile file = MazeFile.read(Paths.get(loadFile));
+          maze = file.maze;
+          seed = file.seed;
+        }
+      } catch (IOException e) {
+        throw new JobException("Maze can't be loaded: " + e.getMessage());
+      }
+      result.generateNanos = profiler.end();
+      out.println("Maze is " + (isMapped ? "mapped" : "loaded") + " from " + loadFile + ".");
+      out.println("Seed = " + seed);
+      result.mazeType = maze.type == Maze.HEX ? "hex" : maze.type == Maze.TUNNEL ? "tunnel" : "normal";
+      result.rowNum = maze.sizeR;
+      result.colNum = maze.sizeC;
+      result.seed = seed;
     }
+    else {
+      // check rowNum and colNum
+      if (rowNum < 1 || colNum < 1) {
+        throw new JobException("Row or column number of maze must be at least 1.");
+      }
 
-    // initialise maze
-    maze.initMaze(rowNum, colNum, entR, entC, exitR, exitC, tunnelList);
+      // construct maze object
+      switch (mazeType) {
+      case "normal":
+        maze = new NormalMaze();
+        break;
+      case "tunnel":
+        maze = new TunnelMaze();
+        break;
+      case "hex":
+        maze = new HexMaze();
+        break;
+      // same mazes with walls stored as packed bits, for very large sizes
+      case "packedNormal":
+        maze = new PackedMaze(Maze.NORMAL);
+        break;
+      case "packedTunnel":
+        maze = new PackedMaze(Maze.TUNNEL);
+        break;
+      case "packedHex":
+        maze = new PackedMaze(Maze.HEX);
+        break;
+      default:
+        throw new JobException("Unknown maze type.");
+      }
 
-    // check if maze entrance or exit is valid
-    if (!maze.isOnEdge(entR, entC) || !maze.isOnEdge(exitR, exitC)) {
-      System.err.println("Incorrect maze entrance or exit position.");
-      usage(progName);
+      // initialise maze
+      profiler.begin("init");
+      maze.initMaze(rowNum, colNum, entR, entC, exitR, exitC, tunnelList);
+      profiler.end();
+
+      // check if maze entrance or exit is valid
+      if (!maze.isOnEdge(entR, entC) || !maze.isOnEdge(exitR, exitC)) {
+        throw new JobException("Incorrect maze entrance or exit position.");
+      }
+
+      // determine which implementation to test
+      MazeGenerator mazeGen = null;
+      try {
+        mazeGen = createGenerator(mazeGeneratorName);
+      } catch (IllegalArgumentException e) {
+        throw new JobException(e.getMessage());
+      }
+      if (mazeGen == null) {
+        throw new JobException("Unknown maze generator name.");
+      }
+
+      out.println(mazeGen.getClass().getSimpleName() + " is generating the maze.");
+      out.println("Seed = " + seed);
+      profiler.begin("generate");
+
+      // play the generation back in the window, drawn by a second thread so the generator doesn't wait
+      GenerationAnimator animator = null;
+      if (isVisu && framesPerSecond > 0) {
+        animator = new GenerationAnimator(maze, framesPerSecond);
+        animator.start();
+      }
+
+      // generate maze, some generators only support certain maze types.
+      // The animator is stopped either way, so a failed job leaves no listener or drawing thread behind
+      try {
+        mazeGen.generateMaze(maze, seed);
+      } catch (IllegalArgumentException e) {
+        throw new JobException(e.getMessage());
+      } finally {
+        if (animator != null)
+          animator.finish();
+      }
+      result.generateNanos = profiler.end();
     }
 
-    // determine which implementation to test
-    MazeGenerator mazeGen = null;
-    switch (mazeGeneratorName) {
-    case "modiPrim":
-      mazeGen = new ModifiedPrimsGenerator();
-      break;
-    case "recurBack":
-      mazeGen = new RecursiveBacktrackerGenerator();
-      break;
-    case "growingTree":
-      mazeGen = new GrowingTreeGenerator();
-      break;
-    default:
-      System.err.println("Unknown maze generator name.");
-      usage(progName);
+    // save maze to be solved again later
+    if (saveFile != null) {
+      try {
+        profiler.begin("save");
+        MazeFile.write(maze, seed, Paths.get(saveFile));
+        profiler.end();
+        out.println("Maze is saved to " + saveFile + ".");
+      } catch (IOException e) {
+        System.err.println("Maze can't be saved: " + e.getMessage());
+      }
     }
 
-    outStream.println(mazeGen.getClass().getSimpleName() + " is generating the maze.");
+    // draw the maze to a PNG file, which needs no display
+    if (pngFile != null) {
+      profiler.begin("png");
+      try (OutputStream pngOut = new BufferedOutputStream(new FileOutputStream(pngFile))) {
+        new MazeRasterizer(maze.grid(), pngCellSize).writePng(pngOut);
+        profiler.end();
+        out.println("Maze is drawn to " + pngFile + ".");
+      } catch (IOException | IllegalArgumentException e) {
+        System.err.println("Maze can't be drawn: " + e.getMessage());
+      }
+    }
 
-    // generate maze
-    mazeGen.generateMaze(maze);
+    // export the maze as tiles a viewer can zoom into
+    if (dziFile != null) {
+      try {
+        profiler.begin("dzi");
+        new DeepZoomExporter(maze.grid(), pngCellSize).export(Paths.get(dziFile));
+        profiler.end();
+        out.println("Maze is exported to " + dziFile + ".");
+      } catch (IOException | IllegalArgumentException e) {
+        System.err.println("Maze can't be exported: " + e.getMessage());
+      }
+    }
 
     // update whether maze should be visualised
     maze.isVisu = isVisu;
 
     // check if maze is perfect
+    profiler.begin("isPerfect");
     boolean isPerfectMaze = maze.isPerfect();
+    result.checkNanos = profiler.end();
+    result.isPerfect = isPerfectMaze;
 
-    outStream.println("The maze is " + (isPerfectMaze ? "" : "not ") + "perfect!");
+    out.println("The maze is " + (isPerfectMaze ? "" : "not ") + "perfect!");
 
-    // draw maze (this depends on maze.isVisu)
-    maze.draw();
+    // draw maze (this depends on maze.isVisu), as a single frame when animating
+    profiler.begin("draw");
+    if (isVisu && framesPerSecond > 0) {
+      StdDraw.show(0);
+      maze.draw();
+      StdDraw.show();
+    }
+    else
+      maze.draw();
+    profiler.end();
 
     // solve the generateed maze if perfect
     if (isPerfectMaze) {
       MazeSolver mazeSolver = null;
+      // whether the solver walks maze.map[r][c] rather than maze.grid()
+      boolean solverUsesCellMap = false;
       switch (mazeSolverName) {
       case "wallFollower":
         mazeSolver = new WallFollowerSolver();
         break;
+      // biDirrecurBack was the recursive solver this replaced, kept for old parameter files
+      case "biDirBFS":
       case "biDirrecurBack":
-        mazeSolver = new BiDirectionalRecursiveBacktrackerSolver();
+        mazeSolver = new BiDirectionalBFSSolver();
+        break;
+      case "bfs":
+        mazeSolver = new BreadthFirstSolver();
+        break;
+      case "aStar":
+        mazeSolver = new AStarSolver();
         break;
       // sample solver to help you get started
       case "sample":
         mazeSolver = new SampleSolver();
+        solverUsesCellMap = true;
         break;
       // no solver
       case "none":
         break;
       default:
-        System.err.println("Unknown maze solver name.");
-        usage(progName);
+        throw new JobException("Unknown maze solver name.");
       }
 
+      if (solverUsesCellMap && maze instanceof PackedMaze)
+        ((PackedMaze) maze).attachCellMap();
+
       if (mazeSolver != null) {
-        mazeSolver.solveMaze(maze);
-        outStream.println(mazeSolver.getClass().getSimpleName() + " is solving the maze.");
+        // draw footprints in frames, each one repainting the window is too slow on large mazes
+        if (isVisu && framesPerSecond > 0)
+          maze.bufferFootprints(framesPerSecond);
+        profiler.begin("solve");
+        // footprints still buffered are drawn even if the solver fails
+        try {
+          mazeSolver.solveMaze(maze, seed);
+          result.solveNanos = profiler.end();
+        } finally {
+          maze.flushFootprints();
+        }
+        result.isSolved = mazeSolver.isSolved();
+        result.cellsExplored = mazeSolver.cellsExplored();
+        out.println(mazeSolver.getClass().getSimpleName() + " is solving the maze.");
         // check if solver can get out of maze
         if (mazeSolver.isSolved()) {
-          outStream.println("The maze has been solved!");
+          out.println("The maze has been solved!");
           // display number of cells visited for solver
-          outStream.println("Number of cells visited = " + mazeSolver.cellsExplored());
+          out.println("Number of cells visited = " + mazeSolver.cellsExplored());
           // show results from validation
-          outStream.println("Validation result:");
+          out.println("Validation result:");
+          profiler.begin("validate");
           boolean isValid = maze.validate();
-          outStream.println("The solution is " + (isValid ? "" : "not ") + "valid!");
+          result.validateNanos = profiler.end();
+          result.isValid = isValid;
+          result.pathLength = maze.pathLength();
+          out.println("The solution is " + (isValid ? "" : "not ") + "valid!");
         } else {
-          outStream.println("Solver was failed!");
+          out.println("Solver was failed!");
         }
       }
     }
-  } // end of main()
+
+    // close the file of a mapped maze, batches run many files in one JVM.
+    // Its mapping is only released once the maze is garbage collected
+    if (maze instanceof MappedMaze) {
+      try {
+        ((MappedMaze) maze).close();
+      } catch (IOException e) {
+        System.err.println("Maze file can't be closed: " + e.getMessage());
+      }
+    }
+
+    writeProfile(profiler, profileFile, out);
+    return result;
+  } // end of run()
+
+  /**
+   * Write the phases a run went through to its profile file, if the parameter file named one.
+   */
+  protected static void writeProfile(PhaseProfiler profiler, String profileFile, PrintStream out) {
+    if (profileFile == null)
+      return;
+    try {
+      profiler.writeReport(Paths.get(profileFile));
+      out.println("Profile is written to " + profileFile + ".");
+    } catch (IOException e) {
+      System.err.println("Profile can't be written: " + e.getMessage());
+    }
+  } // end of writeProfile()
 } // end of class MazeTester
@@ -0,0 +1,163 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.NoSuchElementException;
+
+
+/**
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ * Splits a parameter file into whitespace separated tokens.
+ * Numbers are parsed straight from the bytes read, so files with millions of
+ * tunnels load without making a String per token as Scanner does.
+ */
+class ParaTokenizer implements Closeable {
+
+  /**
+   * File being read.
+   */
+  protected FileChannel channel;
+
+  /**
+   * Bytes read from the file and not yet tokenized, between position and limit.
+   */
+  protected ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+
+  /**
+   * Open a parameter file.
+   * @param fileName Name of the file.
+   * @throws IOException If the file can't be opened, NoSuchFileException if it doesn't exist.
+   */
+  public ParaTokenizer(String fileName) throws IOException {
+    channel = FileChannel.open(Paths.get(fileName));
+    buffer.limit(0);
+  } // end of ParaTokenizer()
+
+  /**
+   * @return Next byte without consuming it, or -1 at the end of the file.
+   */
+  protected int peek() throws IOException {
+    if (!buffer.hasRemaining()) {
+      buffer.clear();
+      int count = 0;
+      while (count == 0)
+        count = channel.read(buffer);
+      buffer.flip();
+      if (count < 0)
+        return -1;
+    }
+    return buffer.get(buffer.position()) & 0xff;
+  } // end of peek()
+
+  /**
+   * @return True if there is another token.
+   */
+  public boolean hasNext() throws IOException {
+    int b = peek();
+    while (b >= 0 && b <= ' ') {
+      buffer.get();
+      b = peek();
+    }
+    return b >= 0;
+  } // end of hasNext()
+
+  /**
+   * @return True if the next token starts like a number.
+   */
+  public boolean hasNextNumber() throws IOException {
+    if (!hasNext())
+      return false;
+    int b = peek();
+    return b == '-' || b == '+' || (b >= '0' && b <= '9');
+  } // end of hasNextNumber()
+
+  /**
+   * @return Next token.
+   * @throws NoSuchElementException If there are no more tokens.
+   */
+  public String next() throws IOException {
+    if (!hasNext())
+      throw new NoSuchElementException("Parameter file ends too early.");
+    ByteArrayOutputStream token = new ByteArrayOutputStream();
+    int b = peek();
+    while (b > ' ') {
+      token.write(buffer.get());
+      b = peek();
+    }
+    return token.toString(StandardCharsets.UTF_8);
+  } // end of next()
+
+  /**
+   * @return Next token as a long.
+   * @throws NoSuchElementException If there are no more tokens.
+   * @throws NumberFormatException If the token isn't a number.
+   */
+  public long nextLong() throws IOException {
+    if (!hasNext())
+      throw new NoSuchElementException("Parameter file ends too early.");
+
+    boolean isNegative = false;
+    int b = peek();
+    if (b == '-' || b == '+') {
+      isNegative = b == '-';
+      buffer.get();
+      b = peek();
+    }
+    if (b < '0' || b > '9')
+      throw new NumberFormatException("Expected a number in parameter file.");
+
+    // accumulate negatively so Long.MIN_VALUE can be read
+    long value = 0;
+    while (b >= '0' && b <= '9') {
+      int digit = b - '0';
+      if (value < (Long.MIN_VALUE + digit) / 10)
+        throw new NumberFormatException("Number too large in parameter file.");
+      value = value * 10 - digit;
+      buffer.get();
+      b = peek();
+    }
+    if (b > ' ')
+      throw new NumberFormatException("Expected a number in parameter file.");
+    if (!isNegative) {
+      if (value == Long.MIN_VALUE)
+        throw new NumberFormatException("Number too large in parameter file.");
+      value = -value;
+    }
+    return value;
+  } // end of nextLong()
+
+  /**
+   * @return Next token as an int.
+   * @throws NoSuchElementException If there are no more tokens.
+   * @throws NumberFormatException If the token isn't a number or doesn't fit in an int.
+   */
+  public int nextInt() throws IOException {
+    long value = nextLong();
+    if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE)
+      throw new NumberFormatException("Number too large in parameter file.");
+    return (int) value;
+  } // end of nextInt()
+
+  /**
+   * @return Next token as a double, e.g. 2.5 or 1e3.
+   * @throws NoSuchElementException If there are no more tokens.
+   * @throws NumberFormatException If the token isn't a number.
+   */
+  public double nextDouble() throws IOException {
+    String token = next();
+    try {
+      return Double.parseDouble(token);
+    } catch (NumberFormatException e) {
+      throw new NumberFormatException("Expected a number in parameter file.");
+    }
+  } // end of nextDouble()
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  } // end of close()
+
+} // end of class ParaTokenizer
@@ -0,0 +1,198 @@
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+import java.util.*;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+
+/**
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ * Measures the phases of a MazeTester run one after another: wall time, CPU time
+ * and bytes allocated by the running thread, and the collections and collection
+ * time of the garbage collectors while the phase ran.
+ *
+ * CPU time and allocation only count the thread calling begin() and end(), so
+ * work a phase hands to other threads (the tiled generator, the parallel perfect
+ * check) shows in its wall time only. Collections are counted for the whole JVM,
+ * so jobs run at once by MazeBatch see each other's.
+ *
+ * Each phase is also a JFR event, maze.Phase, recorded when the JVM runs with a
+ * flight recording, e.g. java -XX:StartFlightRecording=filename=run.jfr MazeTester ...
+ */
+class PhaseProfiler {
+
+  /**
+   * First line of the report.
+   */
+  protected static final String HEADER = "phase,wallMs,cpuMs,allocatedBytes,gcCount,gcMs";
+
+  /**
+   * What a phase took. CPU time and allocated bytes are -1 where the JVM can't measure them.
+   */
+  static class Phase {
+    String name;
+    long wallNanos;
+    long cpuNanos;
+    long allocatedBytes;
+    long gcCount;
+    long gcMillis;
+  } // end of class Phase
+
+  /**
+   * JFR event covering a phase.
+   */
+  @Name("maze.Phase")
+  @Label("Maze Phase")
+  @Category("Maze")
+  @Description("A phase of a MazeTester run")
+  @StackTrace(false)
+  static class PhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("CPU Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long cpuTime;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+
+    @Label("GC Count")
+    long gcCount;
+
+    @Label("GC Time")
+    @Timespan(Timespan.MILLISECONDS)
+    long gcTime;
+  } // end of class PhaseEvent
+
+  protected com.sun.management.ThreadMXBean threads;
+  protected boolean isCpuMeasured;
+  protected boolean isAllocationMeasured;
+  protected List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+
+  protected List<Phase> phases = new ArrayList<Phase>();
+
+  /**
+   * Phase running and its readings at begin(), or null between phases.
+   */
+  protected Phase current = null;
+  protected PhaseEvent event;
+  protected long startWall;
+  protected long startCpu;
+  protected long startAllocated;
+  protected long startGcCount;
+  protected long startGcMillis;
+
+
+  PhaseProfiler() {
+    java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      threads = (com.sun.management.ThreadMXBean) bean;
+      isCpuMeasured = threads.isCurrentThreadCpuTimeSupported() && threads.isThreadCpuTimeEnabled();
+      isAllocationMeasured = threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled();
+    }
+  } // end of PhaseProfiler()
+
+
+  /**
+   * Start a phase. A phase left running, because its step failed, is dropped.
+   * @param name Name of the phase in the report.
+   */
+  void begin(String name) {
+    current = new Phase();
+    current.name = name;
+    startGcCount = 0;
+    startGcMillis = 0;
+    for (GarbageCollectorMXBean collector : collectors) {
+      startGcCount += Math.max(0, collector.getCollectionCount());
+      startGcMillis += Math.max(0, collector.getCollectionTime());
+    }
+    startAllocated = isAllocationMeasured ? threads.getCurrentThreadAllocatedBytes() : 0;
+    startCpu = isCpuMeasured ? threads.getCurrentThreadCpuTime() : 0;
+    event = new PhaseEvent();
+    event.begin();
+    startWall = System.nanoTime();
+  } // end of begin()
+
+
+  /**
+   * End the phase started last and add it to the report.
+   * @return Wall time of the phase in nanoseconds.
+   */
+  long end() {
+    long wall = System.nanoTime() - startWall;
+    event.end();
+    long cpu = isCpuMeasured ? threads.getCurrentThreadCpuTime() - startCpu : -1;
+    long allocated = isAllocationMeasured ? threads.getCurrentThreadAllocatedBytes() - startAllocated : -1;
+    long gcCount = 0;
+    long gcMillis = 0;
+    for (GarbageCollectorMXBean collector : collectors) {
+      gcCount += Math.max(0, collector.getCollectionCount());
+      gcMillis += Math.max(0, collector.getCollectionTime());
+    }
+
+    Phase phase = current;
+    phase.wallNanos = wall;
+    phase.cpuNanos = cpu;
+    phase.allocatedBytes = allocated;
+    phase.gcCount = gcCount - startGcCount;
+    phase.gcMillis = gcMillis - startGcMillis;
+    phases.add(phase);
+    current = null;
+
+    if (event.shouldCommit()) {
+      event.phase = phase.name;
+      event.cpuTime = phase.cpuNanos;
+      event.allocated = phase.allocatedBytes;
+      event.gcCount = phase.gcCount;
+      event.gcTime = phase.gcMillis;
+      event.commit();
+    }
+    event = null;
+    return wall;
+  } // end of end()
+
+
+  /**
+   * @return Phases ended so far, in the order they ran.
+   */
+  List<Phase> phases() {
+    return phases;
+  } // end of phases()
+
+
+  /**
+   * Write the phases as CSV, a line per phase after HEADER, with times in milliseconds.
+   */
+  void writeReport(Path file) throws IOException {
+    try (BufferedWriter report = Files.newBufferedWriter(file)) {
+      report.write(HEADER);
+      report.newLine();
+      for (Phase phase : phases) {
+        report.write(phase.name + "," + millis(phase.wallNanos) + ","
+          + (phase.cpuNanos < 0 ? "" : millis(phase.cpuNanos)) + ","
+          + (phase.allocatedBytes < 0 ? "" : Long.toString(phase.allocatedBytes)) + ","
+          + phase.gcCount + "," + phase.gcMillis);
+        report.newLine();
+      }
+    }
+  } // end of writeReport()
+
+
+  protected static String millis(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+  } // end of millis()
+
+} // end of class PhaseProfiler
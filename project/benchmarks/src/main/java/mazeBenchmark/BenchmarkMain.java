@@ -0,0 +1,39 @@
+package mazeBenchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the usual JMH command line, adding the gc profiler
+ * for allocation rates and writing results to jmh-result.json for plotting
+ * scaling curves, unless the command line picks its own profilers or results.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class BenchmarkMain {
+
+  public static void main(String[] args) throws Exception {
+    CommandLineOptions cmd = new CommandLineOptions(args);
+    if (cmd.shouldHelp() || cmd.shouldList() || cmd.shouldListProfilers() || cmd.shouldListResultFormats() || cmd.shouldListWithParams()) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+
+    OptionsBuilder builder = new OptionsBuilder();
+    builder.parent(cmd);
+    if (cmd.getProfilers().isEmpty())
+      builder.addProfiler(GCProfiler.class);
+    if (!cmd.getResultFormat().hasValue())
+      builder.resultFormat(ResultFormatType.JSON);
+    if (!cmd.getResult().hasValue())
+      builder.result("jmh-result.json");
+    Options options = builder.build();
+    new Runner(options).run();
+  } // end of main()
+
+} // end of class BenchmarkMain
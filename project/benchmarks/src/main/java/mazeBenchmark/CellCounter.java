@@ -0,0 +1,29 @@
+package mazeBenchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the maze cells handled by a benchmark, so JMH reports cells per second
+ * next to operations per second and mazes of every size can be put on one
+ * scaling curve.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class CellCounter {
+
+  public long cells;
+
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    cells = 0;
+  } // end of reset()
+
+} // end of class CellCounter
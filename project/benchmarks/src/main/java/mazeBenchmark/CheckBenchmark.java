@@ -0,0 +1,70 @@
+package mazeBenchmark;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import maze.Maze;
+import mazeSolver.BreadthFirstSolver;
+
+/**
+ * Time to check a generated maze is perfect and to validate a solver's footprints.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class CheckBenchmark {
+
+  @Param({ "normal", "tunnel", "hex" })
+  public String type;
+
+  @Param({ "100", "500", "1000", "2000", "4000" })
+  public int size;
+
+  @Param({ "true" })
+  public boolean packed;
+
+  protected Maze maze;
+
+  protected PrintStream stdout;
+
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    maze = Mazes.generatedMaze(type, size, packed);
+    new BreadthFirstSolver().solveMaze(maze, Mazes.SEED);
+
+    // validate() prints its result every time, which would be timed and flood the output
+    stdout = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+  } // end of setUp()
+
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    System.setOut(stdout);
+  } // end of tearDown()
+
+
+  @Benchmark
+  public boolean isPerfect(CellCounter counter) {
+    counter.cells += (long) size * size;
+    return maze.isPerfect();
+  } // end of isPerfect()
+
+
+  @Benchmark
+  public boolean validate(CellCounter counter) {
+    counter.cells += (long) size * size;
+    return maze.validate();
+  } // end of validate()
+
+} // end of class CheckBenchmark
@@ -0,0 +1,64 @@
+package mazeBenchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import maze.Maze;
+import mazeGenerator.MazeGenerator;
+
+/**
+ * Time to generate a maze, including setting up its walls, which InitBenchmark
+ * measures on its own so it can be taken off.
+ * Eller's algorithm only makes square mazes, so it has its own EllerBenchmark.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class GeneratorBenchmark {
+
+  @Param({ "recurBack", "growingTree", "modiPrim", "kruskal", "tiled:recurBack" })
+  public String generator;
+
+  @Param({ "normal", "tunnel", "hex" })
+  public String type;
+
+  @Param({ "100", "500", "1000", "2000", "4000" })
+  public int size;
+
+  /**
+   * True for PackedMaze, false for the Cell/Wall object graph, which needs far more memory at the larger sizes.
+   */
+  @Param({ "true" })
+  public boolean packed;
+
+  protected MazeGenerator mazeGen;
+
+  /**
+   * Each maze gets a new seed so the generator can't settle into a single path.
+   */
+  protected long seed = Mazes.SEED;
+
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    mazeGen = Mazes.generator(generator);
+  } // end of setUp()
+
+
+  @Benchmark
+  public Maze generate(CellCounter counter) {
+    Maze maze = Mazes.newMaze(type, packed);
+    Mazes.initMaze(maze, type, size);
+    mazeGen.generateMaze(maze, seed++);
+    counter.cells += (long) size * size;
+    return maze;
+  } // end of generate()
+
+} // end of class GeneratorBenchmark
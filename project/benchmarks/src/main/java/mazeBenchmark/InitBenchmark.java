@@ -0,0 +1,42 @@
+package mazeBenchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import maze.Maze;
+
+/**
+ * Time to set up a maze with every wall present, the part of GeneratorBenchmark
+ * that doesn't depend on the generator.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class InitBenchmark {
+
+  @Param({ "normal", "tunnel", "hex" })
+  public String type;
+
+  @Param({ "100", "500", "1000", "2000", "4000" })
+  public int size;
+
+  @Param({ "true" })
+  public boolean packed;
+
+
+  @Benchmark
+  public Maze initMaze(CellCounter counter) {
+    Maze maze = Mazes.newMaze(type, packed);
+    Mazes.initMaze(maze, type, size);
+    counter.cells += (long) size * size;
+    return maze;
+  } // end of initMaze()
+
+} // end of class InitBenchmark
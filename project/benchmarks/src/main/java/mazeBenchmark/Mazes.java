@@ -0,0 +1,130 @@
+package mazeBenchmark;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import maze.HexMaze;
+import maze.Maze;
+import maze.NormalMaze;
+import maze.PackedMaze;
+import maze.TunnelMaze;
+import mazeGenerator.*;
+import mazeSolver.*;
+
+/**
+ * Builds the mazes, generators and solvers benchmarked, by the same names
+ * MazeTester reads from parameter files.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class Mazes {
+
+  /**
+   * Seed of the mazes that solvers and checks are run on.
+   */
+  public final static long SEED = 1;
+
+
+  /**
+   * @param type normal, tunnel or hex.
+   * @param isPacked True for a PackedMaze, false for the Cell/Wall object graph.
+   * @return Maze not yet initialised.
+   */
+  public static Maze newMaze(String type, boolean isPacked) {
+    switch (type) {
+    case "normal":
+      return isPacked ? new PackedMaze(Maze.NORMAL) : new NormalMaze();
+    case "tunnel":
+      return isPacked ? new PackedMaze(Maze.TUNNEL) : new TunnelMaze();
+    case "hex":
+      return isPacked ? new PackedMaze(Maze.HEX) : new HexMaze();
+    default:
+      throw new IllegalArgumentException("Unknown maze type " + type + ".");
+    }
+  } // end of newMaze()
+
+
+  /**
+   * Initialise a square maze of size by size cells, entered at one corner and left at the opposite one.
+   * Tunnel mazes get one tunnel per size cells, between cells picked at random.
+   */
+  public static void initMaze(Maze maze, String type, int size) {
+    List<int[]> tunnels = new ArrayList<>();
+    if (type.equals("tunnel")) {
+      // no cell may be the end of two tunnels
+      SplittableRandom rand = new SplittableRandom(SEED);
+      Set<Long> used = new HashSet<>();
+      while (tunnels.size() < size / 2) {
+        int tunnel[] = { rand.nextInt(size), rand.nextInt(size), rand.nextInt(size), rand.nextInt(size) };
+        long from = (long) tunnel[0] * size + tunnel[1];
+        long to = (long) tunnel[2] * size + tunnel[3];
+        if (from != to && !used.contains(from) && !used.contains(to)) {
+          used.add(from);
+          used.add(to);
+          tunnels.add(tunnel);
+        }
+      }
+    }
+    maze.isVisu = false;
+    maze.initMaze(size, size, 0, 0, size - 1, size - 1, tunnels);
+  } // end of initMaze()
+
+
+  /**
+   * @param name Generator name as in MazeTester, tiled:<name> runs the named generator in tiles.
+   */
+  public static MazeGenerator generator(String name) {
+    if (name.startsWith("tiled:"))
+      return new ParallelTiledGenerator(generator(name.substring("tiled:".length())));
+
+    switch (name) {
+    case "modiPrim":
+      return new ModifiedPrimsGenerator();
+    case "recurBack":
+      return new RecursiveBacktrackerGenerator();
+    case "growingTree":
+      return new GrowingTreeGenerator();
+    case "kruskal":
+      return new KruskalGenerator();
+    case "eller":
+      return new EllerGenerator();
+    default:
+      throw new IllegalArgumentException("Unknown maze generator " + name + ".");
+    }
+  } // end of generator()
+
+
+  /**
+   * @param name Solver name as in MazeTester. The sample solver isn't available as it only comes as a jar.
+   */
+  public static MazeSolver solver(String name) {
+    switch (name) {
+    case "wallFollower":
+      return new WallFollowerSolver();
+    case "biDirBFS":
+      return new BiDirectionalBFSSolver();
+    case "bfs":
+      return new BreadthFirstSolver();
+    case "aStar":
+      return new AStarSolver();
+    default:
+      throw new IllegalArgumentException("Unknown maze solver " + name + ".");
+    }
+  } // end of solver()
+
+
+  /**
+   * @return Maze generated by the recursive backtracker, ready to be solved.
+   */
+  public static Maze generatedMaze(String type, int size, boolean isPacked) {
+    Maze maze = newMaze(type, isPacked);
+    initMaze(maze, type, size);
+    new RecursiveBacktrackerGenerator().generateMaze(maze, SEED);
+    return maze;
+  } // end of generatedMaze()
+
+} // end of class Mazes
@@ -0,0 +1,54 @@
+package mazeBenchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import maze.Maze;
+import mazeSolver.MazeSolver;
+
+/**
+ * Time to solve a maze made by the recursive backtracker, the same maze for every run.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class SolverBenchmark {
+
+  @Param({ "wallFollower", "bfs", "biDirBFS", "aStar" })
+  public String solver;
+
+  @Param({ "normal", "tunnel", "hex" })
+  public String type;
+
+  @Param({ "100", "500", "1000", "2000", "4000" })
+  public int size;
+
+  @Param({ "true" })
+  public boolean packed;
+
+  protected Maze maze;
+
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    maze = Mazes.generatedMaze(type, size, packed);
+  } // end of setUp()
+
+
+  @Benchmark
+  public MazeSolver solve(CellCounter counter) {
+    // footprints left by earlier runs are only read by validate(), so the maze is reused
+    MazeSolver mazeSolver = Mazes.solver(solver);
+    mazeSolver.solveMaze(maze, Mazes.SEED);
+    counter.cells += mazeSolver.cellsExplored();
+    return mazeSolver;
+  } // end of solve()
+
+} // end of class SolverBenchmark
@@ -0,0 +1,126 @@
+package maze;
+
+/**
+ * MazeGrid view over the Cell/Wall object graph of a maze, so algorithms written
+ * against MazeGrid also run on NormalMaze, TunnelMaze and HexMaze.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+class CellMapGrid implements MazeGrid {
+
+  /**
+   * Maze being viewed, its map must already be initialised.
+   */
+  protected Maze maze;
+
+  /**
+   * True if row r of map[][] is shifted right by (r + 1) / 2 columns, as in HexMaze.
+   */
+  protected boolean isHex;
+
+
+  CellMapGrid(Maze maze) {
+    this.maze = maze;
+    this.isHex = maze.type == Maze.HEX;
+  } // end of CellMapGrid()
+
+
+  /**
+   * @param cell Index of the cell.
+   * @return Cell object in the map.
+   */
+  protected Cell cellAt(int cell) {
+    int r = cell / maze.sizeC;
+    int c = cell % maze.sizeC;
+    if (isHex)
+      c += (r + 1) / 2;
+    return maze.map[r][c];
+  } // end of cellAt()
+
+
+  /**
+   * @param cell Cell object in the map.
+   * @return Index of the cell.
+   */
+  protected int indexOf(Cell cell) {
+    int c = cell.c;
+    if (isHex)
+      c -= (cell.r + 1) / 2;
+    return cell.r * maze.sizeC + c;
+  } // end of indexOf()
+
+
+  @Override
+  public int type() {
+    return maze.type;
+  } // end of type()
+
+
+  @Override
+  public int sizeR() {
+    return maze.sizeR;
+  } // end of sizeR()
+
+
+  @Override
+  public int sizeC() {
+    return maze.sizeC;
+  } // end of sizeC()
+
+
+  @Override
+  public int entrance() {
+    return indexOf(maze.entrance);
+  } // end of entrance()
+
+
+  @Override
+  public int exit() {
+    return indexOf(maze.exit);
+  } // end of exit()
+
+
+  @Override
+  public int neighbour(int cell, int dir) {
+    Cell next = cellAt(cell).neigh[dir];
+    if (next == null)
+      return -1;
+    return indexOf(next);
+  } // end of neighbour()
+
+
+  @Override
+  public boolean isWallPresent(int cell, int dir) {
+    Wall wall = cellAt(cell).wall[dir];
+    return wall == null || wall.present;
+  } // end of isWallPresent()
+
+
+  @Override
+  public void setWallPresent(int cell, int dir, boolean present) {
+    Cell curr = cellAt(cell);
+    if (curr.neigh[dir] == null)
+      return;
+    curr.wall[dir].present = present;
+    curr.wall[dir].drawn = false;
+    if (maze.wallListener != null)
+      maze.wallListener.wallChanged(cell, dir, present);
+  } // end of setWallPresent()
+
+
+  @Override
+  public int tunnelTo(int cell) {
+    Cell other = cellAt(cell).tunnelTo;
+    if (other == null)
+      return -1;
+    return indexOf(other);
+  } // end of tunnelTo()
+
+
+  @Override
+  public void drawFtPrt(int cell) {
+    maze.drawFtPrt(cellAt(cell));
+  } // end of drawFtPrt()
+
+} // end of class CellMapGrid
@@ -0,0 +1,234 @@
+package maze;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.zip.Deflater;
+
+/**
+ * Exports a maze as a Deep Zoom (DZI) tile pyramid, which viewers such as
+ * OpenSeadragon can pan and zoom without loading the whole picture.
+ *
+ * The export is a name.dzi file describing the image and a name_files folder
+ * with a folder per zoom level, level 0 being a single pixel and the last level
+ * the full picture drawn by MazeRasterizer. Each level is half the size of the
+ * next and is cut into TILE_SIZE square tiles named column_row.png.
+ *
+ * Tiles of the last level are drawn straight from the maze and every other tile
+ * is shrunk from the four tiles under it, so the maze is only drawn once.
+ * Tiles are drawn in parallel, and a tile is dropped as soon as the one above it
+ * has been made from it, so memory holds a few tiles per thread and zoom level
+ * however large the maze is.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class DeepZoomExporter {
+
+  /**
+   * Width and height of a tile in pixels.
+   */
+  public final static int TILE_SIZE = 256;
+
+  protected MazeRasterizer rasterizer;
+
+  /**
+   * Folder holding the folder of each level.
+   */
+  protected Path tileDir;
+
+  /**
+   * Last level, with the full size picture.
+   */
+  protected int maxLevel;
+
+  /**
+   * Width and height of the picture at each level.
+   */
+  protected int levelWidth[];
+  protected int levelHeight[];
+
+
+  /**
+   * @param grid Maze to export.
+   * @param cellSize Width of a cell in pixels at the last level, at least 2.
+   */
+  public DeepZoomExporter(MazeGrid grid, int cellSize) {
+    rasterizer = new MazeRasterizer(grid, cellSize);
+
+    // levels are halved, rounding up, until the picture is a single pixel
+    int size = Math.max(rasterizer.width(), rasterizer.height());
+    maxLevel = 32 - Integer.numberOfLeadingZeros(size - 1);
+    levelWidth = new int[maxLevel + 1];
+    levelHeight = new int[maxLevel + 1];
+    levelWidth[maxLevel] = rasterizer.width();
+    levelHeight[maxLevel] = rasterizer.height();
+    for (int level = maxLevel - 1; level >= 0; level--) {
+      levelWidth[level] = (levelWidth[level + 1] + 1) / 2;
+      levelHeight[level] = (levelHeight[level + 1] + 1) / 2;
+    }
+  } // end of DeepZoomExporter()
+
+
+  /**
+   * Export the maze using the common ForkJoinPool.
+   * @param dziFile Path of the .dzi file, tiles go in a folder next to it.
+   */
+  public void export(Path dziFile) throws IOException {
+    export(dziFile, ForkJoinPool.commonPool());
+  } // end of export()
+
+
+  /**
+   * Export the maze.
+   * @param dziFile Path of the .dzi file, tiles go in a folder next to it.
+   * @param pool Pool the tiles are drawn in.
+   */
+  public void export(Path dziFile, ForkJoinPool pool) throws IOException {
+    String name = dziFile.getFileName().toString();
+    if (name.endsWith(".dzi"))
+      name = name.substring(0, name.length() - 4);
+    tileDir = dziFile.resolveSibling(name + "_files");
+    for (int level = 0; level <= maxLevel; level++)
+      Files.createDirectories(tileDir.resolve(Integer.toString(level)));
+
+    try {
+      pool.invoke(new TileTask(0, 0, 0));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+
+    // written last, so a viewer never finds a descriptor without its tiles
+    try (Writer out = Files.newBufferedWriter(dziFile, StandardCharsets.UTF_8)) {
+      out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+      out.write("<Image xmlns=\"http://schemas.microsoft.com/deepzoom/2008\" Format=\"png\" Overlap=\"0\" TileSize=\"" + TILE_SIZE + "\">\n");
+      out.write("  <Size Width=\"" + rasterizer.width() + "\" Height=\"" + rasterizer.height() + "\"/>\n");
+      out.write("</Image>\n");
+    }
+  } // end of export()
+
+
+  /**
+   * @return Number of tile columns at a level.
+   */
+  protected int numCols(int level) {
+    return (levelWidth[level] + TILE_SIZE - 1) / TILE_SIZE;
+  } // end of numCols()
+
+
+  /**
+   * @return Number of tile rows at a level.
+   */
+  protected int numRows(int level) {
+    return (levelHeight[level] + TILE_SIZE - 1) / TILE_SIZE;
+  } // end of numRows()
+
+
+  /**
+   * Shrink up to four tiles of the next level into a tile, averaging each
+   * square of four pixels, or fewer on the right and bottom edges.
+   * @param children Tiles of the next level, top left, top right, bottom left and bottom right, null if outside the picture.
+   */
+  protected void shrink(int tile[], int w, int h, int children[][], int childW[], int childH[]) {
+    for (int y = 0; y < h; y++) {
+      for (int x = 0; x < w; x++) {
+        int child = (y >= TILE_SIZE / 2 ? 2 : 0) + (x >= TILE_SIZE / 2 ? 1 : 0);
+        int pixels[] = children[child];
+        int cx = 2 * x % TILE_SIZE;
+        int cy = 2 * y % TILE_SIZE;
+        int red = 0, green = 0, blue = 0, count = 0;
+        for (int dy = 0; dy < 2 && cy + dy < childH[child]; dy++) {
+          for (int dx = 0; dx < 2 && cx + dx < childW[child]; dx++) {
+            int pixel = pixels[(cy + dy) * childW[child] + cx + dx];
+            red += pixel >>> 16 & 0xff;
+            green += pixel >>> 8 & 0xff;
+            blue += pixel & 0xff;
+            count++;
+          }
+        }
+        tile[y * w + x] = (red / count) << 16 | (green / count) << 8 | blue / count;
+      }
+    }
+  } // end of shrink()
+
+
+  protected void writeTile(int level, int col, int row, int tile[], int w, int h) throws IOException {
+    Path file = tileDir.resolve(Integer.toString(level)).resolve(col + "_" + row + ".png");
+    OutputStream out = new BufferedOutputStream(Files.newOutputStream(file));
+    try (PngWriter png = new PngWriter(out, w, h, Deflater.BEST_SPEED)) {
+      for (int y = 0; y < h; y++)
+        png.writeRow(tile, y * w);
+    }
+  } // end of writeTile()
+
+
+  /**
+   * Makes a tile, after the tiles under it, writes it and hands its pixels to the tile above.
+   */
+  protected class TileTask extends RecursiveTask<int[]> {
+
+    private static final long serialVersionUID = 1L;
+
+    protected int level;
+    protected int col;
+    protected int row;
+
+    protected TileTask(int level, int col, int row) {
+      this.level = level;
+      this.col = col;
+      this.row = row;
+    } // end of TileTask()
+
+
+    @Override
+    protected int[] compute() {
+      int w = Math.min(TILE_SIZE, levelWidth[level] - col * TILE_SIZE);
+      int h = Math.min(TILE_SIZE, levelHeight[level] - row * TILE_SIZE);
+      int tile[] = new int[w * h];
+
+      if (level == maxLevel) {
+        rasterizer.draw(tile, col * TILE_SIZE, row * TILE_SIZE, w, h);
+      }
+      else {
+        TileTask tasks[] = new TileTask[4];
+        for (int i = 0; i < 4; i++) {
+          int childCol = 2 * col + i % 2;
+          int childRow = 2 * row + i / 2;
+          if (childCol < numCols(level + 1) && childRow < numRows(level + 1))
+            tasks[i] = new TileTask(level + 1, childCol, childRow);
+        }
+        for (int i = 3; i > 0; i--)
+          if (tasks[i] != null)
+            tasks[i].fork();
+
+        int children[][] = new int[4][];
+        int childW[] = new int[4];
+        int childH[] = new int[4];
+        for (int i = 0; i < 4; i++) {
+          if (tasks[i] == null)
+            continue;
+          children[i] = i == 0 ? tasks[i].compute() : tasks[i].join();
+          childW[i] = Math.min(TILE_SIZE, levelWidth[level + 1] - tasks[i].col * TILE_SIZE);
+          childH[i] = Math.min(TILE_SIZE, levelHeight[level + 1] - tasks[i].row * TILE_SIZE);
+        }
+        shrink(tile, w, h, children, childW, childH);
+      }
+
+      try {
+        writeTile(level, col, row, tile, w, h);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return tile;
+    } // end of compute()
+
+  } // end of class TileTask
+
+} // end of class DeepZoomExporter
@@ -0,0 +1,104 @@
+package maze;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Collects the footprints a solver draws and puts them on the canvas in
+ * batches, a frame at a time, instead of repainting the window for every one.
+ *
+ * Footprints are kept as a bit per slot, so a cell stepped on many times
+ * between frames is drawn once. StdDraw is kept in animation mode from the first
+ * frame until finish() is called.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class FootprintBuffer {
+
+  /**
+   * Bit slot is set if its footprint is waiting to be drawn.
+   */
+  protected long pending[];
+
+  /**
+   * Range of words of pending that may have bits set.
+   */
+  protected int lowWord;
+  protected int highWord = -1;
+
+  /**
+   * Draws the footprint of a slot.
+   */
+  protected IntConsumer painter;
+
+  protected long frameNanos;
+  protected long nextFrame;
+  protected boolean isAnimating = false;
+
+
+  /**
+   * @param numSlots Number of footprints that can be recorded, slots are numbered from 0.
+   * @param framesPerSecond How often waiting footprints are drawn.
+   * @param painter Draws the footprint of a slot with StdDraw.
+   */
+  public FootprintBuffer(int numSlots, double framesPerSecond, IntConsumer painter) {
+    if (!(framesPerSecond > 0))
+      throw new IllegalArgumentException("Frame rate must be positive.");
+    this.pending = new long[(numSlots + 63) >>> 6];
+    this.lowWord = pending.length;
+    this.painter = painter;
+    this.frameNanos = (long) (1e9 / framesPerSecond);
+    this.nextFrame = System.nanoTime() + frameNanos;
+  } // end of FootprintBuffer()
+
+
+  /**
+   * Record a footprint, drawing the waiting ones if a frame is due.
+   */
+  public void record(int slot) {
+    int word = slot >>> 6;
+    pending[word] |= 1L << slot;
+    lowWord = Math.min(lowWord, word);
+    highWord = Math.max(highWord, word);
+
+    if (System.nanoTime() - nextFrame >= 0)
+      flush();
+  } // end of record()
+
+
+  /**
+   * Draw the waiting footprints and show them as one frame.
+   */
+  public void flush() {
+    if (!isAnimating) {
+      // shows what was drawn so far and keeps further drawing off screen until the next show
+      StdDraw.show(0);
+      isAnimating = true;
+    }
+
+    for (int i = lowWord; i <= highWord; i++) {
+      long word = pending[i];
+      while (word != 0) {
+        painter.accept(i << 6 | Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+      pending[i] = 0;
+    }
+    lowWord = pending.length;
+    highWord = -1;
+
+    StdDraw.show(0);
+    nextFrame = System.nanoTime() + frameNanos;
+  } // end of flush()
+
+
+  /**
+   * Draw the waiting footprints and leave animation mode, so later drawing shows at once again.
+   */
+  public void finish() {
+    flush();
+    StdDraw.show();
+    isAnimating = false;
+  } // end of finish()
+
+} // end of class FootprintBuffer
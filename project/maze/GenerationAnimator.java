@@ -0,0 +1,240 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Plays back the generation of a maze in the StdDraw window while it is being
+ * generated, at a fixed frame rate.
+ *
+ * The generator thread only writes each wall change into a ring buffer, and a
+ * drawing thread takes them out, marks the blocks of cells around them as dirty
+ * and redraws just those blocks once a frame, from the current walls of the maze.
+ * When the drawing thread falls behind and the buffer fills, changes are dropped
+ * rather than waited for and the next frame redraws the whole maze instead, so a
+ * slow window never holds up the generator.
+ *
+ * Only walls are drawn, the entrance, exit and tunnels are left to Maze.draw().
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class GenerationAnimator implements WallListener {
+
+  /**
+   * Width and height in cells of the blocks redrawn.
+   */
+  protected final static int BLOCK = 32;
+
+  /**
+   * Number of wall changes the buffer holds, a power of 2.
+   */
+  protected final static int RING_SIZE = 1 << 16;
+
+  protected Maze maze;
+  protected MazeGrid grid;
+  protected boolean isHex;
+  protected int dirs[];
+  protected int ownDirs[];
+
+  protected long frameNanos;
+
+  /**
+   * Wall changes as cell * NUM_DIR + dir, written at tail by the generator and read from head by the drawing thread.
+   */
+  protected long ring[] = new long[RING_SIZE];
+  protected AtomicLong head = new AtomicLong();
+  protected AtomicLong tail = new AtomicLong();
+
+  /**
+   * Generator's copies of tail and of head as last read, so it rarely reads head.
+   */
+  protected long produced = 0;
+  protected long knownHead = 0;
+
+  /**
+   * Set when a change was dropped because the buffer was full.
+   */
+  protected AtomicBoolean isOverflowed = new AtomicBoolean();
+
+  /**
+   * Bit set for each block that has changed since the last frame.
+   */
+  protected int blockRows;
+  protected int blockCols;
+  protected long dirty[];
+
+  protected Thread drawer;
+  protected volatile boolean isRunning;
+
+
+  /**
+   * @param maze Maze about to be generated, already initialised.
+   * @param framesPerSecond How often the changed walls are drawn.
+   */
+  public GenerationAnimator(Maze maze, double framesPerSecond) {
+    if (!(framesPerSecond > 0))
+      throw new IllegalArgumentException("Frame rate must be positive.");
+    this.maze = maze;
+    this.grid = maze.grid();
+    this.isHex = grid.type() == Maze.HEX;
+    this.dirs = isHex ? Maze.hexDir : Maze.squareDir;
+    this.ownDirs = isHex ? Maze.hexOwnDir : Maze.squareOwnDir;
+    this.frameNanos = (long) (1e9 / framesPerSecond);
+    this.blockRows = (grid.sizeR() + BLOCK - 1) / BLOCK;
+    this.blockCols = (grid.sizeC() + BLOCK - 1) / BLOCK;
+    this.dirty = new long[(int) (((long) blockRows * blockCols + 63) >>> 6)];
+  } // end of GenerationAnimator()
+
+
+  /**
+   * Draw the maze as it is and start watching its walls.
+   */
+  public void start() {
+    // same window and scale as Maze.draw()
+    StdDraw.setCanvasSize(650, 650);
+    StdDraw.setXscale(-1, grid.sizeC() + (isHex ? 1.5 : 1));
+    StdDraw.setYscale(-1, grid.sizeR() + 1);
+    StdDraw.show(0);
+
+    isOverflowed.set(true);
+    isRunning = true;
+    drawer = new Thread(this::run, "GenerationAnimator");
+    drawer.setDaemon(true);
+    drawer.start();
+    maze.setWallListener(this);
+  } // end of start()
+
+
+  /**
+   * Stop watching, wait for the last frame to be drawn and leave StdDraw animation mode.
+   */
+  public void finish() {
+    maze.setWallListener(null);
+    isRunning = false;
+    LockSupport.unpark(drawer);
+    boolean isInterrupted = false;
+    while (drawer.isAlive()) {
+      try {
+        drawer.join();
+      } catch (InterruptedException e) {
+        isInterrupted = true;
+      }
+    }
+    if (isInterrupted)
+      Thread.currentThread().interrupt();
+  } // end of finish()
+
+
+  @Override
+  public void wallChanged(int cell, int dir, boolean present) {
+    if (produced - knownHead >= RING_SIZE) {
+      knownHead = head.get();
+      if (produced - knownHead >= RING_SIZE) {
+        if (!isOverflowed.get())
+          isOverflowed.set(true);
+        return;
+      }
+    }
+    ring[(int) produced & (RING_SIZE - 1)] = (long) cell * Maze.NUM_DIR + dir;
+    tail.lazySet(++produced);
+  } // end of wallChanged()
+
+
+  /**
+   * Drawing thread, a frame at a time until finish() is called, then one last frame.
+   */
+  protected void run() {
+    while (true) {
+      long frameStart = System.nanoTime();
+      boolean isLast = !isRunning;
+      drawFrame();
+      if (isLast)
+        break;
+      long wait = frameNanos - (System.nanoTime() - frameStart);
+      if (wait > 0)
+        LockSupport.parkNanos(this, wait);
+    }
+    StdDraw.show();
+  } // end of run()
+
+
+  /**
+   * Mark the blocks changed since the last frame and redraw them.
+   */
+  protected void drawFrame() {
+    // take the changes made so far before looking at the walls
+    boolean isAll = isOverflowed.getAndSet(false);
+    long end = tail.get();
+    for (long i = head.get(); i < end; i++) {
+      long event = ring[(int) i & (RING_SIZE - 1)];
+      int cell = (int) (event / Maze.NUM_DIR);
+      int next = grid.neighbour(cell, (int) (event % Maze.NUM_DIR));
+      markDirty(cell);
+      if (next >= 0)
+        markDirty(next);
+    }
+    head.lazySet(end);
+
+    int numDirty = 0;
+    for (long word : dirty)
+      numDirty += Long.bitCount(word);
+    if (isAll || numDirty > blockRows * blockCols / 2) {
+      StdDraw.clear();
+      StdDraw.setPenColor(StdDraw.BLACK);
+      drawWalls(0, grid.sizeR() - 1, 0, grid.sizeC() - 1);
+    }
+    else {
+      for (int i = 0; i < dirty.length; i++) {
+        for (long word = dirty[i]; word != 0; word &= word - 1)
+          drawBlock(i << 6 | Long.numberOfTrailingZeros(word));
+      }
+    }
+    Arrays.fill(dirty, 0);
+    StdDraw.show(0);
+  } // end of drawFrame()
+
+
+  protected void markDirty(int cell) {
+    int block = grid.row(cell) / BLOCK * blockCols + grid.col(cell) / BLOCK;
+    dirty[block >>> 6] |= 1L << block;
+  } // end of markDirty()
+
+
+  /**
+   * Clear a block, with a cell to spare around it as hex cells reach past their
+   * row and column, and draw every wall crossing the cleared area again.
+   */
+  protected void drawBlock(int block) {
+    int r0 = block / blockCols * BLOCK;
+    int c0 = block % blockCols * BLOCK;
+    int r1 = Math.min(grid.sizeR(), r0 + BLOCK) - 1;
+    int c1 = Math.min(grid.sizeC(), c0 + BLOCK) - 1;
+
+    StdDraw.setPenColor(StdDraw.WHITE);
+    StdDraw.filledRectangle((c0 + c1 + 1) / 2.0, (r0 + r1 + 1) / 2.0, (c1 - c0 + 3) / 2.0, (r1 - r0 + 3) / 2.0);
+    StdDraw.setPenColor(StdDraw.BLACK);
+    drawWalls(Math.max(0, r0 - 2), Math.min(grid.sizeR() - 1, r1 + 2), Math.max(0, c0 - 2), Math.min(grid.sizeC() - 1, c1 + 2));
+  } // end of drawBlock()
+
+
+  /**
+   * Draw the walls of a rectangle of cells, each inner wall from the cell owning it and every edge wall.
+   */
+  protected void drawWalls(int r0, int r1, int c0, int c1) {
+    for (int r = r0; r <= r1; r++) {
+      for (int c = c0; c <= c1; c++) {
+        int cell = grid.index(r, c);
+        for (int dir : ownDirs)
+          if (grid.isWallPresent(cell, dir))
+            PackedMaze.drawWall(isHex, r, c, dir);
+        for (int dir : dirs)
+          if (!PackedMaze.isOwned(dir) && grid.neighbour(cell, dir) < 0)
+            PackedMaze.drawWall(isHex, r, c, dir);
+      }
+    }
+  } // end of drawWalls()
+
+} // end of class GenerationAnimator
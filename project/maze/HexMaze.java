@@ -74,40 +74,6 @@ public class HexMaze extends NormalMaze {
   } // end of initMaze()
 
 
-  @Override
-  public boolean isPerfect() {
-    boolean visited[][] = new boolean[sizeR][sizeC];
-    Queue<Cell> queue = new LinkedList<Cell>();
-
-    queue.add(entrance);
-
-    while (!queue.isEmpty()) {
-      Cell currCell = queue.poll();
-      visited[currCell.r][currCell.c - (currCell.r + 1) / 2] = true;
-      int visitedNeigh = 0;
-      for (int i = 0; i < NUM_DIR; i++) {
-        Cell nextCell = currCell.neigh[i];
-        if (!isIn(nextCell) || currCell.wall[i].present)
-          continue;
-        if (visited[nextCell.r][nextCell.c - (nextCell.r + 1) / 2])
-          visitedNeigh += 1;
-        else
-          queue.add(nextCell);
-      }
-
-      if (visitedNeigh > 1)
-        return false;
-    }
-
-    for (int i = 0; i < sizeR; i++)
-      for (int j = 0; j < sizeC; j++)
-        if (!visited[i][j])
-          return false;
-
-    return true;
-  } // end of isPerfect()
-
-
   @Override
   public void draw() {
     // draw nothing if visualization is switched off
@@ -182,9 +148,18 @@ public class HexMaze extends NormalMaze {
     if (!isVisu)
       return;
 
+    if (ftPrtBuffer != null)
+      ftPrtBuffer.record(cell.r * map[0].length + cell.c);
+    else
+      paintFtPrt(cell);
+  } // end of drawFtPrt()
+
+
+  @Override
+  protected void paintFtPrt(Cell cell) {
     StdDraw.setPenColor(StdDraw.GRAY);
     StdDraw.filledCircle(cell.r % 2 * 0.5 + cell.c - (cell.r + 1) / 2 + 0.5, cell.r + 0.5, 0.25);
-  } // end of drawFtPrt()
+  } // end of paintFtPrt()
 
 
   @Override
@@ -235,6 +210,7 @@ public class HexMaze extends NormalMaze {
       System.out.println("[Validation] Path length of the solution = " + pathLength);
     }
 
+    validPathLength = isValid ? pathLength : 0;
     return isValid;
   } // end of validate()
 
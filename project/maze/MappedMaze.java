@@ -0,0 +1,144 @@
+package maze;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * PackedMaze whose wall bits stay in a maze file written by MazeFile and are
+ * read through a memory mapping, so only the pages of the file a solver touches
+ * are loaded and the operating system's page cache holds them instead of the heap.
+ *
+ * The heap still holds a bit per cell for footprints and whatever the solver
+ * keeps per cell, and cells are indexed by int like every other maze, so mazes
+ * are limited to Integer.MAX_VALUE cells.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class MappedMaze extends PackedMaze implements Closeable {
+
+  /**
+   * Seed the maze was generated with.
+   */
+  public final long seed;
+
+  /**
+   * Maze file being mapped.
+   */
+  protected FileChannel channel;
+
+  /**
+   * True if carving walls writes them to the file.
+   */
+  protected boolean isWritable;
+
+  /**
+   * Mapping of the wall bits in the file, null once closed.
+   */
+  protected MappedByteBuffer mapping;
+
+  /**
+   * Wall bits in the file, in the same layout as PackedMaze.walls, null once closed.
+   */
+  protected LongBuffer words;
+
+
+  protected MappedMaze(int type, FileChannel channel, boolean isWritable, long seed) {
+    super(type);
+    this.channel = channel;
+    this.isWritable = isWritable;
+    this.seed = seed;
+  } // end of MappedMaze()
+
+
+  /**
+   * Map the walls of a maze file.
+   * @param path Maze file written by MazeFile.write().
+   * @param isWritable True if walls changed by a generator should be written to the file.
+   * @return Maze reading its walls from the file, close it when done.
+   * @throws IOException If the file can't be mapped or isn't a maze file.
+   */
+  public static MappedMaze open(Path path, boolean isWritable) throws IOException {
+    FileChannel channel = isWritable ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE) : FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      MazeFile.Header header = MazeFile.readHeader(channel, path);
+      MappedMaze maze = new MappedMaze(header.type, channel, isWritable, header.seed);
+      header.initMaze(maze, MazeFile.readTunnels(channel, header, path));
+      return maze;
+    } catch (UncheckedIOException e) {
+      channel.close();
+      throw e.getCause();
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  } // end of open()
+
+
+  @Override
+  protected void initWalls(long numWords) {
+    // the walls follow the header, which is a whole number of longs so every word is aligned
+    try {
+      FileChannel.MapMode mode = isWritable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+      mapping = channel.map(mode, MazeFile.HEADER_BYTES, numWords * Long.BYTES);
+      words = mapping.order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  } // end of initWalls()
+
+
+  @Override
+  protected boolean isOpen(long bit) {
+    checkNotClosed();
+    return (words.get((int) (bit >>> 6)) & (1L << bit)) != 0;
+  } // end of isOpen()
+
+
+  @Override
+  protected void setOpen(long bit, boolean open) {
+    checkNotClosed();
+    // only write words that change, so syncing an unchanged cell map works on a read only mapping
+    int index = (int) (bit >>> 6);
+    long word = words.get(index);
+    long changed = open ? word | (1L << bit) : word & ~(1L << bit);
+    if (changed != word)
+      words.put(index, changed);
+  } // end of setOpen()
+
+
+  /**
+   * Close the file, writing any changed walls back if it is writable. The walls
+   * can't be read after. Java has no way to unmap the file, the mapping is only
+   * released once the garbage collector finds it unreachable.
+   */
+  @Override
+  public void close() throws IOException {
+    if (mapping == null)
+      return;
+    try {
+      if (isWritable) {
+        syncFromCellMap();
+        mapping.force();
+      }
+    } finally {
+      mapping = null;
+      words = null;
+      channel.close();
+    }
+  } // end of close()
+
+
+  protected void checkNotClosed() {
+    if (words == null)
+      throw new IllegalStateException("Maze file has been closed.");
+  } // end of checkNotClosed()
+
+} // end of class MappedMaze
@@ -39,6 +39,12 @@ public abstract class Maze {
   public final static int deltaR[] = { 0, 1, 1, 0, -1, -1 };
   public final static int deltaC[] = { 1, 1, 0, -1, -1, 0 };
   public final static int oppoDir[] = { 3, 4, 5, 0, 1, 2 };
+  // directions used by square and hexagon cells, and the half of them each cell owns,
+  // so looping over the owned directions of every cell visits every inner wall once
+  public final static int squareDir[] = { EAST, NORTH, WEST, SOUTH };
+  public final static int hexDir[] = { EAST, NORTHEAST, NORTHWEST, WEST, SOUTHWEST, SOUTHEAST };
+  public final static int squareOwnDir[] = { EAST, NORTH };
+  public final static int hexOwnDir[] = { EAST, NORTHEAST, NORTHWEST };
 
   /**
    * maze properties
@@ -52,6 +58,21 @@ public abstract class Maze {
   public Cell exit;
   public boolean isVisu = true;
 
+  /**
+   * Footprints waiting to be drawn, null if each footprint is drawn as it is recorded.
+   */
+  protected FootprintBuffer ftPrtBuffer = null;
+
+  /**
+   * Told about walls changed through grid(), null if nobody is watching.
+   */
+  protected WallListener wallListener = null;
+
+  /**
+   * Path length of the solution found by the last validate(), 0 if it wasn't valid.
+   */
+  protected int validPathLength = 0;
+
   /**
    * To test whether the input entrance and exit locations are valid.
    * @param r Row of a cell.
@@ -89,10 +110,61 @@ public abstract class Maze {
    */
   public abstract void drawFtPrt(Cell cell);
 
+  /**
+   * Draw the foot print of a cell on the canvas, without recording it.
+   * @param cell Cell to be drawn.
+   */
+  protected abstract void paintFtPrt(Cell cell);
+
+  /**
+   * Draw foot prints in batches at a frame rate instead of one at a time,
+   * so solvers can be watched on large mazes, until flushFootprints() is called.
+   * @param framesPerSecond How often the waiting foot prints are drawn.
+   */
+  public void bufferFootprints(double framesPerSecond) {
+    int width = map[0].length;
+    ftPrtBuffer = new FootprintBuffer(sizeR * width, framesPerSecond, slot -> paintFtPrt(map[slot / width][slot % width]));
+  } // end of bufferFootprints()
+
+  /**
+   * Draw the foot prints still waiting and go back to drawing them one at a time.
+   */
+  public void flushFootprints() {
+    if (ftPrtBuffer != null) {
+      ftPrtBuffer.finish();
+      ftPrtBuffer = null;
+    }
+  } // end of flushFootprints()
+
+  /**
+   * Watch the walls generators change through grid(), such as GenerationAnimator does.
+   * Generators changing map[r][c].wall[k] directly are not seen.
+   * @param listener Listener told about each change, null to stop watching.
+   */
+  public void setWallListener(WallListener listener) {
+    wallListener = listener;
+  } // end of setWallListener()
+
 
   /**
    * Show validation result of whether the maze is solved
    */
   public abstract boolean validate();
 
+  /**
+   * @return Path length of the solution found by the last validate(), 0 if it wasn't valid or hasn't been run.
+   */
+  public int pathLength() {
+    return validPathLength;
+  } // end of pathLength()
+
+  /**
+   * Index based view of the maze for algorithms working on primitive arrays.
+   * Changes made through the view are made to the maze itself.
+   * @return MazeGrid view of the maze, map[][] must be initialised.
+   */
+  public MazeGrid grid() {
+    return new CellMapGrid(this);
+  } // end of grid()
+
 }
@@ -0,0 +1,304 @@
+package maze;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary file holding a generated maze, so it can be solved again without regenerating it.
+ *
+ * All numbers are little endian. The file starts with a header of
+ * magic, version, type, sizeR, sizeC, entrance row and column, exit row and column (ints),
+ * the seed the maze was generated with (long) and the number of tunnels (int).
+ * Then come the wall bits in the same layout as PackedMaze.walls, as longs,
+ * then each tunnel as the indices of its two ends (ints).
+ * Mazes are always read back as a PackedMaze.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class MazeFile {
+
+  /**
+   * "MAZE" in ASCII, first int of every maze file.
+   */
+  public final static int MAGIC = 0x455a414d;
+  public final static int VERSION = 1;
+  public final static int HEADER_BYTES = 9 * Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+  /**
+   * Size of the buffer wall bits are copied through.
+   */
+  protected final static int BUFFER_BYTES = 1 << 20;
+
+  /**
+   * Maze read from the file.
+   */
+  public final PackedMaze maze;
+
+  /**
+   * Seed the maze was generated with.
+   */
+  public final long seed;
+
+
+  protected MazeFile(PackedMaze maze, long seed) {
+    this.maze = maze;
+    this.seed = seed;
+  } // end of MazeFile()
+
+
+  /**
+   * Write a maze to a file, replacing the file if it exists.
+   * @param maze Maze to write, of any type.
+   * @param seed Seed the maze was generated with.
+   * @param path File to write.
+   * @throws IOException If the file can't be written.
+   */
+  public static void write(Maze maze, long seed, Path path) throws IOException {
+    if (maze instanceof PackedMaze)
+      ((PackedMaze) maze).syncFromCellMap();
+    MazeGrid grid = maze instanceof PackedMaze ? (PackedMaze) maze : maze.grid();
+    int n = grid.numCells();
+    int bitsPerCell = grid.type() == Maze.HEX ? 3 : 2;
+    int ownDirs[] = grid.type() == Maze.HEX ? Maze.hexOwnDir : Maze.squareOwnDir;
+
+    // tunnels, each once from its lower index end
+    int tunnels[] = new int[0];
+    int numTunnels = 0;
+    for (int cell = 0; cell < n; cell++) {
+      int other = grid.tunnelTo(cell);
+      if (other <= cell)
+        continue;
+      if (2 * numTunnels == tunnels.length)
+        tunnels = Arrays.copyOf(tunnels, Math.max(8, 2 * tunnels.length));
+      tunnels[2 * numTunnels] = cell;
+      tunnels[2 * numTunnels + 1] = other;
+      numTunnels++;
+    }
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+      // header
+      int entrance = grid.entrance();
+      int exit = grid.exit();
+      buffer.putInt(MAGIC).putInt(VERSION).putInt(grid.type()).putInt(grid.sizeR()).putInt(grid.sizeC());
+      buffer.putInt(entrance < 0 ? -1 : grid.row(entrance)).putInt(entrance < 0 ? -1 : grid.col(entrance));
+      buffer.putInt(exit < 0 ? -1 : grid.row(exit)).putInt(exit < 0 ? -1 : grid.col(exit));
+      buffer.putLong(seed).putInt(numTunnels);
+
+      // wall bits, straight from a packed maze held in memory or built a word at a time from the grid
+      long numWords = ((long) n * bitsPerCell + 63) >>> 6;
+      if (grid instanceof PackedMaze && ((PackedMaze) grid).walls != null) {
+        long walls[] = ((PackedMaze) grid).walls;
+        for (int i = 0; i < walls.length; i++) {
+          if (buffer.remaining() < Long.BYTES)
+            flush(channel, buffer);
+          buffer.putLong(walls[i]);
+        }
+      }
+      else {
+        long word = 0;
+        long wordIndex = 0;
+        for (int cell = 0; cell < n; cell++) {
+          for (int k = 0; k < ownDirs.length; k++) {
+            long bit = (long) cell * bitsPerCell + k;
+            if ((bit >>> 6) != wordIndex) {
+              if (buffer.remaining() < Long.BYTES)
+                flush(channel, buffer);
+              buffer.putLong(word);
+              word = 0;
+              wordIndex++;
+            }
+            if (grid.passage(cell, ownDirs[k]) >= 0)
+              word |= 1L << bit;
+          }
+        }
+        if (wordIndex < numWords) {
+          if (buffer.remaining() < Long.BYTES)
+            flush(channel, buffer);
+          buffer.putLong(word);
+        }
+      }
+
+      // tunnels
+      for (int i = 0; i < 2 * numTunnels; i++) {
+        if (buffer.remaining() < Integer.BYTES)
+          flush(channel, buffer);
+        buffer.putInt(tunnels[i]);
+      }
+      flush(channel, buffer);
+    }
+  } // end of write()
+
+
+  /**
+   * Read a maze written by write().
+   * @param path File to read.
+   * @return The maze and the seed it was generated with.
+   * @throws IOException If the file can't be read or isn't a maze file.
+   */
+  public static MazeFile read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      Header header = readHeader(channel, path);
+      PackedMaze maze = new PackedMaze(header.type);
+      header.initMaze(maze, readTunnels(channel, header, path));
+
+      // wall bits
+      ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+      long walls[] = maze.walls;
+      long position = HEADER_BYTES;
+      for (int i = 0; i < walls.length; ) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), (long) (walls.length - i) * Long.BYTES));
+        position += fill(channel, buffer, position);
+        int count = buffer.remaining() / Long.BYTES;
+        buffer.asLongBuffer().get(walls, i, count);
+        i += count;
+      }
+
+      return new MazeFile(maze, header.seed);
+    }
+  } // end of read()
+
+
+  /**
+   * Fields of the header of a maze file.
+   */
+  protected static class Header {
+    int type;
+    int sizeR;
+    int sizeC;
+    int entR;
+    int entC;
+    int exitR;
+    int exitC;
+    long seed;
+    int numTunnels;
+
+    /**
+     * Number of bytes of wall bits following the header.
+     */
+    long wallBytes;
+
+    /**
+     * Set up an all-wall maze of the size, entrance and exit in the header.
+     */
+    void initMaze(PackedMaze maze, List<int[]> tunnelList) {
+      maze.initMaze(sizeR, sizeC, entR, entC, exitR, exitC, tunnelList);
+    } // end of initMaze()
+
+    /**
+     * @return True if the row and column are on the grid.
+     */
+    boolean isIn(int r, int c) {
+      return r >= 0 && r < sizeR && c >= 0 && c < sizeC;
+    } // end of isIn()
+  } // end of class Header
+
+
+  /**
+   * Read and check the header of a maze file.
+   * @param channel File to read.
+   * @param path Name of the file for error messages.
+   * @throws IOException If the file can't be read or isn't a maze file.
+   */
+  protected static Header readHeader(FileChannel channel, Path path) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    fill(channel, buffer, 0);
+    if (buffer.getInt() != MAGIC)
+      throw new IOException(path + " is not a maze file.");
+    if (buffer.getInt() != VERSION)
+      throw new IOException(path + " was written by an unsupported version.");
+
+    Header header = new Header();
+    header.type = buffer.getInt();
+    header.sizeR = buffer.getInt();
+    header.sizeC = buffer.getInt();
+    header.entR = buffer.getInt();
+    header.entC = buffer.getInt();
+    header.exitR = buffer.getInt();
+    header.exitC = buffer.getInt();
+    header.seed = buffer.getLong();
+    header.numTunnels = buffer.getInt();
+    if (header.type < Maze.NORMAL || header.type > Maze.HEX || header.sizeR < 1 || header.sizeC < 1 || header.numTunnels < 0)
+      throw new IOException(path + " has a corrupt header.");
+    // cells are numbered by int, and the entrance and exit have to be on the grid
+    if ((long) header.sizeR * header.sizeC > Integer.MAX_VALUE)
+      throw new IOException(path + " has a corrupt header.");
+    if (!header.isIn(header.entR, header.entC) || !header.isIn(header.exitR, header.exitC))
+      throw new IOException(path + " has a corrupt header.");
+
+    int bitsPerCell = header.type == Maze.HEX ? 3 : 2;
+    header.wallBytes = (((long) header.sizeR * header.sizeC * bitsPerCell + 63) >>> 6) * Long.BYTES;
+    if (channel.size() != HEADER_BYTES + header.wallBytes + 2L * Integer.BYTES * header.numTunnels)
+      throw new IOException(path + " is truncated or corrupt.");
+
+    return header;
+  } // end of readHeader()
+
+
+  /**
+   * Read the tunnels at the end of a maze file.
+   * @param channel File to read.
+   * @param header Header already read from the file.
+   * @param path Name of the file for error messages.
+   * @return Tunnels in the form taken by Maze.initMaze().
+   * @throws IOException If the file can't be read or a tunnel end is off the grid.
+   */
+  protected static List<int[]> readTunnels(FileChannel channel, Header header, Path path) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.limit(0);
+    List<int[]> tunnelList = new ArrayList<int[]>();
+    long position = HEADER_BYTES + header.wallBytes;
+    int sizeC = header.sizeC;
+    long numCells = (long) header.sizeR * header.sizeC;
+    for (int i = 0; i < header.numTunnels; i++) {
+      if (!buffer.hasRemaining()) {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), 2L * Integer.BYTES * (header.numTunnels - i)));
+        position += fill(channel, buffer, position);
+      }
+      int from = buffer.getInt();
+      int to = buffer.getInt();
+      if (from < 0 || from >= numCells || to < 0 || to >= numCells)
+        throw new IOException(path + " has a corrupt header.");
+      tunnelList.add(new int[] { from / sizeC, from % sizeC, to / sizeC, to % sizeC });
+    }
+    return tunnelList;
+  } // end of readTunnels()
+
+
+  /**
+   * Write out everything in the buffer and clear it.
+   */
+  protected static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining())
+      channel.write(buffer);
+    buffer.clear();
+  } // end of flush()
+
+
+  /**
+   * Read from a position until the buffer is up to its limit, then flip it for reading.
+   * @return Number of bytes read.
+   */
+  protected static int fill(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    int start = buffer.position();
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position() - start) < 0)
+        throw new IOException("Unexpected end of maze file.");
+    }
+    buffer.flip();
+    return buffer.limit() - start;
+  } // end of fill()
+
+} // end of class MazeFile
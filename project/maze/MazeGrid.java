@@ -0,0 +1,141 @@
+package maze;
+
+/**
+ * Index based view of a maze, used by generators and solvers that want to work
+ * on primitive arrays instead of the Cell/Wall object graph.
+ *
+ * Cells are numbered r * sizeC + c, where c is the column counted from the left
+ * edge of row r. For hex mazes this is the column used in the parameter file,
+ * not the shifted column used by Maze.map.
+ * Directions are the same constants as in Maze (EAST, NORTH, ...).
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public interface MazeGrid {
+
+  /**
+   * @return Type of the maze, one of Maze.NORMAL, Maze.TUNNEL or Maze.HEX.
+   */
+  public int type();
+
+  /**
+   * @return Number of rows.
+   */
+  public int sizeR();
+
+  /**
+   * @return Number of columns.
+   */
+  public int sizeC();
+
+  /**
+   * @return Index of the entrance cell.
+   */
+  public int entrance();
+
+  /**
+   * @return Index of the exit cell.
+   */
+  public int exit();
+
+  /**
+   * Neighbour of a cell in a direction.
+   * @param cell Index of the cell.
+   * @param dir Direction to move along.
+   * @return Index of the neighbour, or -1 if there is none in that direction.
+   */
+  public int neighbour(int cell, int dir);
+
+  /**
+   * @param cell Index of the cell.
+   * @param dir Direction of the wall.
+   * @return True if the wall is present. Walls on the edge of the maze are always present.
+   */
+  public boolean isWallPresent(int cell, int dir);
+
+  /**
+   * Add or remove the wall shared by a cell and its neighbour.
+   * Walls on the edge of the maze can't be removed and are left alone.
+   * @param cell Index of the cell.
+   * @param dir Direction of the wall.
+   * @param present True to put the wall up, false to carve it.
+   */
+  public void setWallPresent(int cell, int dir, boolean present);
+
+  /**
+   * @param cell Index of the cell.
+   * @return Index of the other end of the tunnel at the cell, or -1 if there is none.
+   */
+  public int tunnelTo(int cell);
+
+  /**
+   * Same as Maze.drawFtPrt(Cell), records the cell as visited by a solver.
+   * @param cell Index of the cell.
+   */
+  public void drawFtPrt(int cell);
+
+  /**
+   * Neighbour reached by going through the wall in a direction, the same as
+   * neighbour(cell, dir) when the wall is carved. Solvers use it to look a
+   * neighbour and its wall up in one go.
+   * @param cell Index of the cell.
+   * @param dir Direction to move along.
+   * @return Index of the neighbour, or -1 if there is none or the wall is present.
+   */
+  default int passage(int cell, int dir) {
+    int next = neighbour(cell, dir);
+    if (next < 0 || isWallPresent(cell, dir))
+      return -1;
+    return next;
+  } // end of passage()
+
+  /**
+   * All neighbours reached through carved walls, tunnels are not included.
+   * @param cell Index of the cell.
+   * @param next Buffer of at least Maze.NUM_DIR entries to put the neighbours in.
+   * @return Number of neighbours put in the buffer.
+   */
+  default int passages(int cell, int next[]) {
+    int count = 0;
+    for (int dir : type() == Maze.HEX ? Maze.hexDir : Maze.squareDir) {
+      int other = passage(cell, dir);
+      if (other >= 0)
+        next[count++] = other;
+    }
+    return count;
+  } // end of passages()
+
+  /**
+   * @return Total number of cells.
+   */
+  default int numCells() {
+    return sizeR() * sizeC();
+  } // end of numCells()
+
+  /**
+   * @param cell Index of the cell.
+   * @return Row coordinate of the cell.
+   */
+  default int row(int cell) {
+    return cell / sizeC();
+  } // end of row()
+
+  /**
+   * @param cell Index of the cell.
+   * @return Column coordinate of the cell, counted from the left edge of its row.
+   */
+  default int col(int cell) {
+    return cell % sizeC();
+  } // end of col()
+
+  /**
+   * @param r Row coordinate.
+   * @param c Column coordinate, counted from the left edge of the row.
+   * @return Index of the cell.
+   */
+  default int index(int r, int c) {
+    return r * sizeC() + c;
+  } // end of index()
+
+} // end of interface MazeGrid
@@ -0,0 +1,323 @@
+package maze;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Draws a maze into an int[] raster and writes it out as a PNG, without StdDraw,
+ * AWT or a display. The picture is the same as Maze.draw(): walls in black,
+ * the entrance and exit as blue and red dots, and a coloured box on each end of
+ * a tunnel, with each cell cellSize pixels across.
+ *
+ * The image is drawn and written a band of pixel rows at a time, so only one
+ * band is held in memory however large the maze is. Parts of the image can
+ * also be drawn on their own with draw(), as DeepZoomExporter does for tiles.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class MazeRasterizer {
+
+  public final static int WHITE = 0xffffff;
+  public final static int BLACK = 0x000000;
+  public final static int BLUE = 0x0000ff;
+  public final static int RED = 0xff0000;
+
+  /**
+   * Colours of the tunnels, the same as the ones used by draw().
+   */
+  public final static int TUNNEL_COLORS[] = { 0x00ffff, 0x00ff00, 0xff00ff, 0xffc800,
+    0xffafaf, 0xffff00, 0x095aa6, 0x67c6f3, 0x96231f };
+
+  /**
+   * Number of pixel rows drawn before they are written out.
+   */
+  protected final static int BAND_ROWS = 64;
+
+  protected MazeGrid grid;
+  protected boolean isHex;
+  protected int cellSize;
+
+  /**
+   * Blank pixels around the maze.
+   */
+  protected int pad;
+
+  /**
+   * Maze coordinates of the top left corner of the drawing, as used by draw().
+   */
+  protected double minX;
+  protected double maxY;
+
+  protected int width;
+  protected int height;
+
+  /**
+   * Lower index end of each tunnel in increasing order, the position of a tunnel picks its colour.
+   */
+  protected int tunnelStarts[];
+
+  /**
+   * Part of the image being drawn into an array of pixels, one per drawing
+   * so several parts can be drawn at once.
+   */
+  protected static class Region {
+    int pixels[];
+    int x0;
+    int y0;
+    int width;
+    int height;
+  } // end of class Region
+
+
+  /**
+   * @param grid Maze to draw.
+   * @param cellSize Width of a cell in pixels, at least 2.
+   */
+  public MazeRasterizer(MazeGrid grid, int cellSize) {
+    if (cellSize < 2)
+      throw new IllegalArgumentException("Cells must be at least 2 pixels across.");
+    this.grid = grid;
+    this.isHex = grid.type() == Maze.HEX;
+    this.cellSize = cellSize;
+    this.pad = Math.max(1, cellSize / 2);
+
+    // hex rows are shifted by half a cell and reach a sixth of a cell above and below their row
+    double maxX = grid.sizeC() + (isHex ? 0.5 : 0);
+    double minY = isHex ? -1.0 / 6 : 0;
+    minX = 0;
+    maxY = grid.sizeR() + (isHex ? 1.0 / 6 : 0);
+    long w = Math.round((maxX - minX) * cellSize) + 2L * pad + 1;
+    long h = Math.round((maxY - minY) * cellSize) + 2L * pad + 1;
+    if (w > Integer.MAX_VALUE || h > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Maze is too large to draw at " + cellSize + " pixels per cell.");
+    width = (int) w;
+    height = (int) h;
+
+    int n = grid.numCells();
+    int count = 0;
+    tunnelStarts = new int[0];
+    for (int cell = 0; cell < n; cell++) {
+      if (grid.tunnelTo(cell) > cell) {
+        if (count == tunnelStarts.length)
+          tunnelStarts = Arrays.copyOf(tunnelStarts, Math.max(8, 2 * count));
+        tunnelStarts[count++] = cell;
+      }
+    }
+    tunnelStarts = Arrays.copyOf(tunnelStarts, count);
+  } // end of MazeRasterizer()
+
+
+  /**
+   * @return Width of the image in pixels.
+   */
+  public int width() {
+    return width;
+  } // end of width()
+
+
+  /**
+   * @return Height of the image in pixels.
+   */
+  public int height() {
+    return height;
+  } // end of height()
+
+
+  /**
+   * Draw the maze and write it as a PNG.
+   * @param out Stream to write to, closed when done.
+   */
+  public void writePng(OutputStream out) throws IOException {
+    if ((long) width * BAND_ROWS > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Maze is too wide to draw as one PNG at " + cellSize + " pixels per cell.");
+    int raster[] = new int[width * BAND_ROWS];
+    try (PngWriter png = new PngWriter(out, width, height, Deflater.BEST_SPEED)) {
+      for (int bandStart = 0; bandStart < height; bandStart += BAND_ROWS) {
+        int bandRows = Math.min(BAND_ROWS, height - bandStart);
+        draw(raster, 0, bandStart, width, bandRows);
+        for (int y = 0; y < bandRows; y++)
+          png.writeRow(raster, y * width);
+      }
+    }
+  } // end of writePng()
+
+
+  /**
+   * Draw part of the image. Safe to call from several threads at once.
+   * @param pixels Array to draw into, row by row, as 0xRRGGBB.
+   * @param x0 Left edge of the part in the image.
+   * @param y0 Top edge of the part in the image.
+   * @param w Width of the part.
+   * @param h Height of the part.
+   */
+  public void draw(int pixels[], int x0, int y0, int w, int h) {
+    Region region = new Region();
+    region.pixels = pixels;
+    region.x0 = x0;
+    region.y0 = y0;
+    region.width = w;
+    region.height = h;
+    Arrays.fill(pixels, 0, w * h, WHITE);
+
+    int entrance = grid.entrance();
+    int exit = grid.exit();
+    int entOpening = openingDir(entrance);
+    int exitOpening = openingDir(exit);
+    int dirs[] = isHex ? Maze.hexDir : Maze.squareDir;
+
+    // cells reaching into the part, with a cell to spare on each side
+    int topRow = (int) Math.ceil(maxY - (double) (y0 - pad) / cellSize) + 1;
+    int bottomRow = (int) Math.floor(maxY - (double) (y0 + h - pad) / cellSize) - 2;
+    int leftCol = (int) Math.floor(minX + (double) (x0 - pad) / cellSize) - 2;
+    int rightCol = (int) Math.ceil(minX + (double) (x0 + w - pad) / cellSize) + 1;
+    for (int r = Math.max(0, bottomRow); r <= Math.min(grid.sizeR() - 1, topRow); r++) {
+      for (int c = Math.max(0, leftCol); c <= Math.min(grid.sizeC() - 1, rightCol); c++) {
+        int cell = grid.index(r, c);
+        double x = PackedMaze.drawX(isHex, r, c);
+
+        // same walls as PackedMaze.draw(), each inner wall once from the cell owning it and every edge wall
+        for (int dir : dirs) {
+          if ((cell == entrance && dir == entOpening) || (cell == exit && dir == exitOpening))
+            continue;
+          int next = grid.neighbour(cell, dir);
+          if (next < 0 || (PackedMaze.isOwned(dir) && grid.isWallPresent(cell, dir)))
+            drawWall(region, x, r, dir, BLACK);
+        }
+
+        if (cell == entrance)
+          fillCircle(region, x + 0.5, r + 0.5, 0.375, BLUE);
+        if (cell == exit)
+          fillCircle(region, x + 0.5, r + 0.5, 0.375, RED);
+
+        int other = grid.tunnelTo(cell);
+        if (other >= 0) {
+          int color = TUNNEL_COLORS[Arrays.binarySearch(tunnelStarts, Math.min(cell, other)) % TUNNEL_COLORS.length];
+          line(region, x + 0.9, r + 0.1, x + 0.9, r + 0.9, color);
+          line(region, x + 0.1, r + 0.9, x + 0.9, r + 0.9, color);
+          line(region, x + 0.1, r + 0.1, x + 0.1, r + 0.9, color);
+          line(region, x + 0.1, r + 0.1, x + 0.9, r + 0.1, color);
+        }
+      }
+    }
+  } // end of draw()
+
+
+  /**
+   * @return First direction of the cell leading out of the maze, left undrawn as the opening.
+   */
+  protected int openingDir(int cell) {
+    if (cell < 0)
+      return -1;
+    for (int dir : isHex ? Maze.hexDir : Maze.squareDir)
+      if (grid.neighbour(cell, dir) < 0)
+        return dir;
+    return -1;
+  } // end of openingDir()
+
+
+  /**
+   * Draw a wall of a cell into the pixels, same shapes as PackedMaze.drawWall().
+   */
+  protected void drawWall(Region region, double x, int r, int dir, int color) {
+    if (!isHex) {
+      switch (dir) {
+      case Maze.EAST: line(region, x+1, r, x+1, r+1, color); break;
+      case Maze.NORTH: line(region, x, r+1, x+1, r+1, color); break;
+      case Maze.WEST: line(region, x, r, x, r+1, color); break;
+      case Maze.SOUTH: line(region, x, r, x+1, r, color); break;
+      }
+      return;
+    }
+
+    double halfEdge = 1.0 / 3;
+    switch (dir) {
+    case Maze.EAST: line(region, x+1, r+0.5-halfEdge, x+1, r+0.5+halfEdge, color); break;
+    case Maze.NORTHEAST: line(region, x+0.5, r+0.5+2*halfEdge, x+1, r+0.5+halfEdge, color); break;
+    case Maze.NORTHWEST: line(region, x+0.5, r+0.5+2*halfEdge, x, r+0.5+halfEdge, color); break;
+    case Maze.WEST: line(region, x, r+0.5-halfEdge, x, r+0.5+halfEdge, color); break;
+    case Maze.SOUTHWEST: line(region, x, r+0.5-halfEdge, x+0.5, r+0.5-2*halfEdge, color); break;
+    case Maze.SOUTHEAST: line(region, x+1, r+0.5-halfEdge, x+0.5, r+0.5-2*halfEdge, color); break;
+    }
+  } // end of drawWall()
+
+
+  protected int pixelX(double x) {
+    return (int) Math.round((x - minX) * cellSize) + pad;
+  } // end of pixelX()
+
+
+  protected int pixelY(double y) {
+    return (int) Math.round((maxY - y) * cellSize) + pad;
+  } // end of pixelY()
+
+
+  /**
+   * Set a pixel if it is in the part being drawn.
+   */
+  protected void plot(Region region, int px, int py, int color) {
+    int x = px - region.x0;
+    int y = py - region.y0;
+    if (x >= 0 && x < region.width && y >= 0 && y < region.height)
+      region.pixels[y * region.width + x] = color;
+  } // end of plot()
+
+
+  /**
+   * Draw a one pixel wide line between two points in maze coordinates, using Bresenham's algorithm.
+   */
+  protected void line(Region region, double x0, double y0, double x1, double y1, int color) {
+    int px = pixelX(x0);
+    int py = pixelY(y0);
+    int endX = pixelX(x1);
+    int endY = pixelY(y1);
+
+    // skip lines entirely outside the part
+    if (Math.max(py, endY) < region.y0 || Math.min(py, endY) >= region.y0 + region.height
+        || Math.max(px, endX) < region.x0 || Math.min(px, endX) >= region.x0 + region.width)
+      return;
+
+    int dx = Math.abs(endX - px);
+    int dy = -Math.abs(endY - py);
+    int stepX = px < endX ? 1 : -1;
+    int stepY = py < endY ? 1 : -1;
+    int err = dx + dy;
+    while (true) {
+      plot(region, px, py, color);
+      if (px == endX && py == endY)
+        break;
+      int err2 = 2 * err;
+      if (err2 >= dy) {
+        err += dy;
+        px += stepX;
+      }
+      if (err2 <= dx) {
+        err += dx;
+        py += stepY;
+      }
+    }
+  } // end of line()
+
+
+  /**
+   * Fill a circle given in maze coordinates.
+   */
+  protected void fillCircle(Region region, double x, double y, double radius, int color) {
+    double cx = (x - minX) * cellSize + pad;
+    double cy = (maxY - y) * cellSize + pad;
+    double pr = radius * cellSize;
+    int top = Math.max(region.y0, (int) Math.floor(cy - pr));
+    int bottom = Math.min(region.y0 + region.height - 1, (int) Math.ceil(cy + pr));
+    for (int py = top; py <= bottom; py++) {
+      double dy = py - cy;
+      if (dy * dy > pr * pr)
+        continue;
+      double half = Math.sqrt(pr * pr - dy * dy);
+      for (int px = (int) Math.ceil(cx - half); px <= (int) Math.floor(cx + half); px++)
+        plot(region, px, py, color);
+    }
+  } // end of fillCircle()
+
+} // end of class MazeRasterizer
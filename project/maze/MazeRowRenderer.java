@@ -0,0 +1,277 @@
+package maze;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Draws a square maze into a PNG while it is handed over one row at a time,
+ * holding only two rows of the maze and one row of pixels, so mazes far larger
+ * than memory can be drawn as they are generated or read.
+ *
+ * Rows are given as in mazeGenerator.MazeRowSink, so acceptRow can be passed to
+ * EllerGenerator.generate() directly. PNG rows are written from the top, so rows
+ * given from the last row down give the same picture as MazeRasterizer, while
+ * rows given from row 0 up give that picture upside down.
+ * Walls and the entrance and exit are drawn, tunnels are not.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class MazeRowRenderer implements Closeable {
+
+  protected PngWriter png;
+  protected int sizeR;
+  protected int sizeC;
+  protected int cellSize;
+  protected int pad;
+  protected int width;
+
+  /**
+   * True if rows are given from the last row down, false if from row 0 up.
+   */
+  protected boolean isTopDown;
+
+  protected int entR;
+  protected int entC;
+  protected int exitR;
+  protected int exitC;
+  protected int entOpening;
+  protected int exitOpening;
+
+  /**
+   * Row drawn last and its walls, the row above the next one in the picture.
+   */
+  protected int prevR = -1;
+  protected boolean prevEast[];
+  protected boolean prevNorth[];
+
+  /**
+   * One row of pixels.
+   */
+  protected int pixels[];
+
+
+  /**
+   * Start a picture of a square maze.
+   * @param out Stream to write the PNG to, closed by close().
+   * @param sizeR Number of rows.
+   * @param sizeC Number of columns.
+   * @param cellSize Width of a cell in pixels, at least 2.
+   * @param isTopDown True if rows will be given from the last row down, false if from row 0 up.
+   * @param entR Row of the entrance.
+   * @param entC Column of the entrance.
+   * @param exitR Row of the exit.
+   * @param exitC Column of the exit.
+   */
+  public MazeRowRenderer(OutputStream out, int sizeR, int sizeC, int cellSize, boolean isTopDown, int entR, int entC, int exitR, int exitC) throws IOException {
+    if (cellSize < 2)
+      throw new IllegalArgumentException("Cells must be at least 2 pixels across.");
+    long w = (long) sizeC * cellSize + 2 * Math.max(1, cellSize / 2) + 1;
+    long h = (long) sizeR * cellSize + 2 * Math.max(1, cellSize / 2) + 1;
+    if (sizeR < 1 || sizeC < 1 || w > Integer.MAX_VALUE / 3 || h > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Maze is too large to draw at " + cellSize + " pixels per cell.");
+
+    this.sizeR = sizeR;
+    this.sizeC = sizeC;
+    this.cellSize = cellSize;
+    this.pad = Math.max(1, cellSize / 2);
+    this.width = (int) w;
+    this.isTopDown = isTopDown;
+    this.entR = entR;
+    this.entC = entC;
+    this.exitR = exitR;
+    this.exitC = exitC;
+    this.entOpening = openingDir(entR, entC);
+    this.exitOpening = openingDir(exitR, exitC);
+    this.prevEast = new boolean[sizeC];
+    this.prevNorth = new boolean[sizeC];
+    this.pixels = new int[width];
+
+    png = new PngWriter(out, width, (int) h, Deflater.BEST_SPEED);
+    Arrays.fill(pixels, MazeRasterizer.WHITE);
+    for (int i = 0; i < pad; i++)
+      png.writeRow(pixels, 0);
+  } // end of MazeRowRenderer()
+
+
+  /**
+   * Draw a square maze held in memory, or mapped from a maze file, a row at a time from the top.
+   * @param grid Maze to draw, tunnels are not drawn.
+   * @param cellSize Width of a cell in pixels, at least 2.
+   * @param out Stream to write the PNG to, closed when done.
+   */
+  public static void render(MazeGrid grid, int cellSize, OutputStream out) throws IOException {
+    if (grid.type() == Maze.HEX)
+      throw new IllegalArgumentException("Only square mazes can be drawn a row at a time.");
+
+    int entrance = grid.entrance();
+    int exit = grid.exit();
+    try (MazeRowRenderer renderer = new MazeRowRenderer(out, grid.sizeR(), grid.sizeC(), cellSize, true,
+        entrance < 0 ? -1 : grid.row(entrance), entrance < 0 ? -1 : grid.col(entrance),
+        exit < 0 ? -1 : grid.row(exit), exit < 0 ? -1 : grid.col(exit))) {
+      boolean eastOpen[] = new boolean[grid.sizeC()];
+      boolean northOpen[] = new boolean[grid.sizeC()];
+      for (int r = grid.sizeR() - 1; r >= 0; r--) {
+        for (int c = 0; c < grid.sizeC(); c++) {
+          int cell = grid.index(r, c);
+          eastOpen[c] = grid.passage(cell, Maze.EAST) >= 0;
+          northOpen[c] = grid.passage(cell, Maze.NORTH) >= 0;
+        }
+        renderer.acceptRow(r, eastOpen, northOpen);
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  } // end of render()
+
+
+  /**
+   * Draw the next row, same arguments as MazeRowSink.acceptRow().
+   * @throws UncheckedIOException If the PNG can't be written.
+   */
+  public void acceptRow(int r, boolean eastOpen[], boolean northOpen[]) {
+    int expected = prevR < 0 ? (isTopDown ? sizeR - 1 : 0) : (isTopDown ? prevR - 1 : prevR + 1);
+    if (r != expected)
+      throw new IllegalStateException("Expected row " + expected + " but was given row " + r + ".");
+
+    try {
+      // line between the row above in the picture and this one, then the inside of this row
+      boolean between[] = isTopDown ? northOpen : prevNorth;
+      drawBoundary(prevR, prevEast, r, eastOpen, between);
+      drawInside(r, eastOpen);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    prevR = r;
+    System.arraycopy(eastOpen, 0, prevEast, 0, sizeC);
+    System.arraycopy(northOpen, 0, prevNorth, 0, sizeC);
+  } // end of acceptRow()
+
+
+  /**
+   * Draw the bottom edge and finish the PNG.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (prevR >= 0) {
+        drawBoundary(prevR, prevEast, -1, null, null);
+        Arrays.fill(pixels, MazeRasterizer.WHITE);
+        for (int i = 0; i < pad; i++)
+          png.writeRow(pixels, 0);
+      }
+    } finally {
+      png.close();
+    }
+  } // end of close()
+
+
+  /**
+   * @return First direction of an edge cell leading out of the maze, in the same order as Maze.squareDir.
+   */
+  protected int openingDir(int r, int c) {
+    if (c == sizeC - 1)
+      return Maze.EAST;
+    if (r == sizeR - 1)
+      return Maze.NORTH;
+    if (c == 0)
+      return Maze.WEST;
+    if (r == 0)
+      return Maze.SOUTH;
+    return -1;
+  } // end of openingDir()
+
+
+  /**
+   * @return True if the wall is the opening of the entrance or exit.
+   */
+  protected boolean isOpening(int r, int c, int dir) {
+    return (r == entR && c == entC && dir == entOpening) || (r == exitR && c == exitC && dir == exitOpening);
+  } // end of isOpening()
+
+
+  /**
+   * @return True if the vertical wall on the west side of column c, or the east edge if c is sizeC, is present.
+   */
+  protected boolean isVerticalWall(int r, boolean eastOpen[], int c) {
+    if (c == 0)
+      return !isOpening(r, 0, Maze.WEST);
+    if (c == sizeC)
+      return !isOpening(r, sizeC - 1, Maze.EAST);
+    return !eastOpen[c - 1];
+  } // end of isVerticalWall()
+
+
+  /**
+   * Draw the row of pixels between two rows of the maze, either of which is -1 on the edge.
+   * @param between Carved walls between the rows, by column, unused on the edge.
+   */
+  protected void drawBoundary(int above, boolean eastAbove[], int below, boolean eastBelow[], boolean between[]) throws IOException {
+    // on the top edge the row below faces out of the maze, on the bottom edge the row above does
+    int edgeDir = isTopDown == (above < 0) ? Maze.NORTH : Maze.SOUTH;
+
+    Arrays.fill(pixels, MazeRasterizer.WHITE);
+    boolean wasClosed = false;
+    for (int c = 0; c <= sizeC; c++) {
+      boolean isClosed = false;
+      if (c < sizeC) {
+        if (above < 0)
+          isClosed = !isOpening(below, c, edgeDir);
+        else if (below < 0)
+          isClosed = !isOpening(above, c, edgeDir);
+        else
+          isClosed = !between[c];
+      }
+
+      // corner is drawn if any wall meets it, as the ends of the lines drawn by MazeRasterizer
+      int x = pad + c * cellSize;
+      if (isClosed || wasClosed || (above >= 0 && isVerticalWall(above, eastAbove, c)) || (below >= 0 && isVerticalWall(below, eastBelow, c)))
+        pixels[x] = MazeRasterizer.BLACK;
+      if (isClosed)
+        Arrays.fill(pixels, x + 1, x + cellSize, MazeRasterizer.BLACK);
+      wasClosed = isClosed;
+    }
+    png.writeRow(pixels, 0);
+  } // end of drawBoundary()
+
+
+  /**
+   * Draw the rows of pixels inside a row of the maze, with its vertical walls and the entrance and exit dots.
+   */
+  protected void drawInside(int r, boolean eastOpen[]) throws IOException {
+    double radius = 0.375 * cellSize;
+    for (int y = 1; y < cellSize; y++) {
+      Arrays.fill(pixels, MazeRasterizer.WHITE);
+      for (int c = 0; c <= sizeC; c++)
+        if (isVerticalWall(r, eastOpen, c))
+          pixels[pad + c * cellSize] = MazeRasterizer.BLACK;
+
+      // dots are centred in the cell
+      double dy = y - cellSize / 2.0;
+      if (dy * dy <= radius * radius) {
+        double half = Math.sqrt(radius * radius - dy * dy);
+        if (r == entR && entC >= 0 && entC < sizeC)
+          fillSpan(entC, half, MazeRasterizer.BLUE);
+        if (r == exitR && exitC >= 0 && exitC < sizeC)
+          fillSpan(exitC, half, MazeRasterizer.RED);
+      }
+      png.writeRow(pixels, 0);
+    }
+  } // end of drawInside()
+
+
+  /**
+   * Fill the pixels of a row within half of the centre of column c.
+   */
+  protected void fillSpan(int c, double half, int color) {
+    double centre = pad + (c + 0.5) * cellSize;
+    for (int x = (int) Math.ceil(centre - half); x <= (int) Math.floor(centre + half); x++)
+      pixels[x] = color;
+  } // end of fillSpan()
+
+} // end of class MazeRowRenderer
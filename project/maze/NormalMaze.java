@@ -101,35 +101,7 @@ public class NormalMaze extends Maze {
 
   @Override
   public boolean isPerfect() {
-    boolean visited[][] = new boolean[sizeR][sizeC];
-    Queue<Cell> queue = new LinkedList<Cell>();
-
-    queue.add(entrance);
-
-    while (!queue.isEmpty()) {
-      Cell currCell = queue.poll();
-      visited[currCell.r][currCell.c] = true;
-      int visitedNeigh = 0;
-      for (int i = 0; i < NUM_DIR; i++) {
-        Cell nextCell = currCell.neigh[i];
-        if (!isIn(nextCell) || currCell.wall[i].present)
-          continue;
-        if (visited[nextCell.r][nextCell.c])
-          visitedNeigh += 1;
-        else
-          queue.add(nextCell);
-      }
-
-      if (visitedNeigh > 1)
-        return false;
-    }
-
-    for (int i = 0; i < sizeR; i++)
-      for (int j = 0; j < sizeC; j++)
-        if (!visited[i][j])
-          return false;
-
-    return true;
+    return PerfectChecker.isPerfect(grid());
   } // end of isPerfect()
 
 
@@ -203,9 +175,18 @@ public class NormalMaze extends Maze {
     if (!isVisu)
       return;
 
+    if (ftPrtBuffer != null)
+      ftPrtBuffer.record(cell.r * sizeC + cell.c);
+    else
+      paintFtPrt(cell);
+  } // end of drawFtPrt()
+
+
+  @Override
+  protected void paintFtPrt(Cell cell) {
     StdDraw.setPenColor(StdDraw.GRAY);
     StdDraw.filledCircle(cell.c + 0.5, cell.r + 0.5, 0.25);
-  } // end of drawFtPrt()
+  } // end of paintFtPrt()
 
 
   @Override
@@ -256,6 +237,7 @@ public class NormalMaze extends Maze {
       System.out.println("[Validation] Path length of the solution = " + pathLength);
     }
 
+    validPathLength = isValid ? pathLength : 0;
     return isValid;
   } // end of validate()
 
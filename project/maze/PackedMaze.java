@@ -0,0 +1,681 @@
+package maze;
+
+import java.awt.Color;
+import java.util.*;
+
+import maze.StdDraw;
+
+/**
+ * Maze that stores its walls as packed bits instead of Cell and Wall objects.
+ *
+ * Each cell owns the walls in Maze.squareOwnDir (2 bits per cell) or
+ * Maze.hexOwnDir (3 bits per cell), the remaining walls belong to the neighbour
+ * on the other side and walls on the edge of the maze are always present.
+ * A set bit means the wall has been carved.
+ * The maze is its own MazeGrid, so index based generators and solvers work on
+ * it directly. Generators and solvers that walk map[r][c].wall[k] need
+ * attachCellMap() to be called first, which builds a temporary Cell/Wall
+ * object graph that is copied back into the bits by syncFromCellMap().
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class PackedMaze extends Maze implements MazeGrid {
+
+  /**
+   * Bit owned by a cell for each direction, -1 if the wall belongs to the neighbour.
+   */
+  protected final static int squareSlot[] = { 0, -1, 1, -1, -1, -1 };
+  protected final static int hexSlot[] = { 0, 1, 2, -1, -1, -1 };
+
+  /**
+   * Whether each direction is used by square cells.
+   */
+  protected final static boolean isSquareDir[] = { true, false, true, true, false, true };
+
+  /**
+   * Number of wall bits owned by each cell.
+   */
+  protected int bitsPerCell;
+
+  /**
+   * Bit owned by a cell for each direction, squareSlot or hexSlot.
+   */
+  protected int slot[];
+
+  /**
+   * Packed wall bits, bit (cell * bitsPerCell + slot[dir]) is set when the wall is carved.
+   */
+  protected long walls[];
+
+  /**
+   * Packed footprint bits, bit cell is set when drawFtPrt has been called on it.
+   */
+  protected long recorded[];
+
+  /**
+   * Bit cell is set if the cell is the end of a tunnel, null if there are no tunnels.
+   */
+  protected long tunnelMark[] = null;
+
+  /**
+   * Tunnel ends sorted by tunnelFrom, tunnelDest[i] is the other end of tunnelFrom[i].
+   */
+  protected int tunnelFrom[] = new int[0];
+  protected int tunnelDest[] = new int[0];
+
+  /**
+   * Indices of the entrance and exit, -1 if not in the maze.
+   */
+  protected int entranceIdx = -1;
+  protected int exitIdx = -1;
+
+
+  /**
+   * @param type Maze.NORMAL, Maze.TUNNEL or Maze.HEX.
+   */
+  public PackedMaze(int type) {
+    this.type = type;
+  } // end of PackedMaze()
+
+
+  // auxiliary functions
+  /**
+   * Check whether cell (r, c) is in the maze.
+   * @param r Row coordinate
+   * @param c Column coordinate, counted from the left edge of the row.
+   * @return True if in the maze. Otherwise false.
+   */
+  protected boolean isIn(int r, int c) {
+    return r >= 0 && r < sizeR && c >= 0 && c < sizeC;
+  } // end of isIn()
+
+
+  /**
+   * @param cell Index of the cell.
+   * @param dir Direction of the wall.
+   * @return Index of the bit storing the wall, -1 if the wall is on the edge of the maze.
+   */
+  protected long wallBit(int cell, int dir) {
+    int next = neighbour(cell, dir);
+    if (next < 0)
+      return -1;
+    if (slot[dir] >= 0)
+      return (long) cell * bitsPerCell + slot[dir];
+    return (long) next * bitsPerCell + slot[oppoDir[dir]];
+  } // end of wallBit()
+
+
+  /**
+   * Set up storage for the wall bits, called by initMaze().
+   * @param numWords Number of longs needed to hold the wall bits.
+   */
+  protected void initWalls(long numWords) {
+    walls = new long[(int) numWords];
+  } // end of initWalls()
+
+
+  /**
+   * @param bit Index of a wall bit.
+   * @return True if the wall has been carved.
+   */
+  protected boolean isOpen(long bit) {
+    return (walls[(int) (bit >>> 6)] & (1L << bit)) != 0;
+  } // end of isOpen()
+
+
+  /**
+   * @param bit Index of a wall bit.
+   * @param open True to carve the wall, false to put it up.
+   */
+  protected void setOpen(long bit, boolean open) {
+    if (open)
+      walls[(int) (bit >>> 6)] |= 1L << bit;
+    else
+      walls[(int) (bit >>> 6)] &= ~(1L << bit);
+  } // end of setOpen()
+
+
+  /**
+   * @param cell Index of the cell.
+   * @return True if drawFtPrt has been called on the cell.
+   */
+  protected boolean isRecorded(int cell) {
+    return (recorded[cell >>> 6] & (1L << cell)) != 0;
+  } // end of isRecorded()
+
+
+  /**
+   * @return Owned directions of a cell, Maze.squareOwnDir or Maze.hexOwnDir.
+   */
+  protected int[] ownDirs() {
+    return type == HEX ? hexOwnDir : squareOwnDir;
+  } // end of ownDirs()
+
+
+  /**
+   * @return Directions of a cell, Maze.squareDir or Maze.hexDir.
+   */
+  protected int[] dirs() {
+    return type == HEX ? hexDir : squareDir;
+  } // end of dirs()
+
+
+  @Override
+  public boolean isOnEdge(int r, int c) {
+    return isIn(r, c) && (r == 0 || r == sizeR - 1 || c == 0 || c == sizeC - 1);
+  } // end of isOnEdge()
+
+
+  @Override
+  public void initMaze(int rs, int cs, int entR, int entC, int exitR, int exitC, List<int[]> tunnelList) {
+    if ((long) rs * cs > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Maze of " + rs + " x " + cs + " has too many cells.");
+
+    // set up maze constants
+    sizeR = rs;
+    sizeC = cs;
+    sizeTunnel = type == TUNNEL ? tunnelList.size() : 0;
+    bitsPerCell = type == HEX ? 3 : 2;
+    slot = type == HEX ? hexSlot : squareSlot;
+
+    // all walls are present to begin with
+    long n = (long) sizeR * sizeC;
+    initWalls((n * bitsPerCell + 63) >>> 6);
+    recorded = new long[(int) ((n + 63) >>> 6)];
+
+    // set up entrance and exit
+    entranceIdx = isIn(entR, entC) ? index(entR, entC) : -1;
+    exitIdx = isIn(exitR, exitC) ? index(exitR, exitC) : -1;
+
+    // set up tunnels, sorted so the other end can be found by binary search
+    if (sizeTunnel > 0) {
+      int ends[][] = new int[2 * sizeTunnel][];
+      for (int i = 0; i < sizeTunnel; i++) {
+        int t[] = tunnelList.get(i);
+        ends[2 * i] = new int[] { index(t[0], t[1]), index(t[2], t[3]) };
+        ends[2 * i + 1] = new int[] { index(t[2], t[3]), index(t[0], t[1]) };
+      }
+      Arrays.sort(ends, (a, b) -> Integer.compare(a[0], b[0]));
+      tunnelMark = new long[recorded.length];
+      tunnelFrom = new int[ends.length];
+      tunnelDest = new int[ends.length];
+      for (int i = 0; i < ends.length; i++) {
+        tunnelFrom[i] = ends[i][0];
+        tunnelDest[i] = ends[i][1];
+        tunnelMark[tunnelFrom[i] >>> 6] |= 1L << tunnelFrom[i];
+      }
+    }
+  } // end of initMaze()
+
+
+  // MazeGrid functions
+  @Override
+  public int type() {
+    return type;
+  } // end of type()
+
+
+  @Override
+  public int sizeR() {
+    return sizeR;
+  } // end of sizeR()
+
+
+  @Override
+  public int sizeC() {
+    return sizeC;
+  } // end of sizeC()
+
+
+  @Override
+  public int entrance() {
+    return entranceIdx;
+  } // end of entrance()
+
+
+  @Override
+  public int exit() {
+    return exitIdx;
+  } // end of exit()
+
+
+  @Override
+  public int neighbour(int cell, int dir) {
+    int r = cell / sizeC;
+    int c = cell - r * sizeC;
+    int nr = r + deltaR[dir];
+    int nc;
+    if (type == HEX)
+      nc = c + (r + 1) / 2 + deltaC[dir] - (nr + 1) / 2;
+    else if (isSquareDir[dir])
+      nc = c + deltaC[dir];
+    else
+      return -1;
+    if (!isIn(nr, nc))
+      return -1;
+    return nr * sizeC + nc;
+  } // end of neighbour()
+
+
+  @Override
+  public int passage(int cell, int dir) {
+    // same as neighbour() and wallBit() with the row and column worked out once
+    int r = cell / sizeC;
+    int c = cell - r * sizeC;
+    int nr = r + deltaR[dir];
+    int nc;
+    if (type == HEX)
+      nc = c + (r + 1) / 2 + deltaC[dir] - (nr + 1) / 2;
+    else if (isSquareDir[dir])
+      nc = c + deltaC[dir];
+    else
+      return -1;
+    if (!isIn(nr, nc))
+      return -1;
+    int next = nr * sizeC + nc;
+    long bit = slot[dir] >= 0 ? (long) cell * bitsPerCell + slot[dir] : (long) next * bitsPerCell + slot[oppoDir[dir]];
+    return isOpen(bit) ? next : -1;
+  } // end of passage()
+
+
+  @Override
+  public int passages(int cell, int next[]) {
+    int r = cell / sizeC;
+    int c = cell - r * sizeC;
+    int count = 0;
+
+    if (type != HEX) {
+      // owned walls lead east and north, the others are owned by the west and south neighbours
+      long bit = (long) cell * 2;
+      if (c + 1 < sizeC && isOpen(bit))
+        next[count++] = cell + 1;
+      if (r + 1 < sizeR && isOpen(bit + 1))
+        next[count++] = cell + sizeC;
+      if (c > 0 && isOpen(bit - 2))
+        next[count++] = cell - 1;
+      if (r > 0 && isOpen((long) (cell - sizeC) * 2 + 1))
+        next[count++] = cell - sizeC;
+      return count;
+    }
+
+    for (int dir : hexDir) {
+      int nr = r + deltaR[dir];
+      int nc = c + (r + 1) / 2 + deltaC[dir] - (nr + 1) / 2;
+      if (!isIn(nr, nc))
+        continue;
+      int other = nr * sizeC + nc;
+      long bit = slot[dir] >= 0 ? (long) cell * 3 + slot[dir] : (long) other * 3 + slot[oppoDir[dir]];
+      if (isOpen(bit))
+        next[count++] = other;
+    }
+    return count;
+  } // end of passages()
+
+
+  @Override
+  public boolean isWallPresent(int cell, int dir) {
+    long bit = wallBit(cell, dir);
+    return bit < 0 || !isOpen(bit);
+  } // end of isWallPresent()
+
+
+  @Override
+  public void setWallPresent(int cell, int dir, boolean present) {
+    long bit = wallBit(cell, dir);
+    if (bit < 0)
+      return;
+    setOpen(bit, !present);
+    if (wallListener != null)
+      wallListener.wallChanged(cell, dir, present);
+  } // end of setWallPresent()
+
+
+  @Override
+  public int tunnelTo(int cell) {
+    if (tunnelMark == null || (tunnelMark[cell >>> 6] & (1L << cell)) == 0)
+      return -1;
+    return tunnelDest[Arrays.binarySearch(tunnelFrom, cell)];
+  } // end of tunnelTo()
+
+
+  @Override
+  public MazeGrid grid() {
+    // while the cell map is attached it holds the up to date walls
+    if (map != null)
+      return new CellMapGrid(this);
+    return this;
+  } // end of grid()
+
+
+  // cell map adapter
+  /**
+   * Build a Cell/Wall object graph in map[][], entrance and exit matching the
+   * packed walls, for generators and solvers that walk map[r][c].wall[k].
+   * The layout of map[][] is the same as NormalMaze, TunnelMaze or HexMaze.
+   */
+  public void attachCellMap() {
+    if (map != null)
+      return;
+
+    Maze view;
+    if (type == HEX)
+      view = new HexMaze();
+    else if (type == TUNNEL)
+      view = new TunnelMaze();
+    else
+      view = new NormalMaze();
+
+    List<int[]> tunnelList = new ArrayList<int[]>();
+    for (int i = 0; i < tunnelFrom.length; i++) {
+      if (tunnelFrom[i] < tunnelDest[i])
+        tunnelList.add(new int[] { row(tunnelFrom[i]), col(tunnelFrom[i]), row(tunnelDest[i]), col(tunnelDest[i]) });
+    }
+    view.initMaze(sizeR, sizeC, row(entranceIdx), col(entranceIdx), row(exitIdx), col(exitIdx), tunnelList);
+
+    // copy the carved walls across
+    MazeGrid cells = view.grid();
+    int n = numCells();
+    for (int cell = 0; cell < n; cell++)
+      for (int dir : ownDirs())
+        if (!isWallPresent(cell, dir))
+          cells.setWallPresent(cell, dir, false);
+
+    map = view.map;
+    entrance = view.entrance;
+    exit = view.exit;
+  } // end of attachCellMap()
+
+
+  /**
+   * Copy the walls of the attached cell map back into the packed bits.
+   * Does nothing if no cell map is attached.
+   */
+  public void syncFromCellMap() {
+    if (map == null)
+      return;
+
+    MazeGrid cells = new CellMapGrid(this);
+    int n = numCells();
+    for (int cell = 0; cell < n; cell++)
+      for (int dir : ownDirs()) {
+        long bit = wallBit(cell, dir);
+        if (bit >= 0)
+          setOpen(bit, !cells.isWallPresent(cell, dir));
+      }
+  } // end of syncFromCellMap()
+
+
+  /**
+   * Copy the walls of the attached cell map back into the packed bits and drop it.
+   */
+  public void detachCellMap() {
+    syncFromCellMap();
+    map = null;
+    entrance = null;
+    exit = null;
+  } // end of detachCellMap()
+
+
+  @Override
+  public boolean isPerfect() {
+    syncFromCellMap();
+    return PerfectChecker.isPerfect(this);
+  } // end of isPerfect()
+
+
+  /**
+   * @param r Row coordinate.
+   * @param c Column coordinate, counted from the left edge of the row.
+   * @return x coordinate of the left edge of the cell when drawn.
+   */
+  protected double drawX(int r, int c) {
+    return drawX(type == HEX, r, c);
+  } // end of drawX()
+
+
+  /**
+   * Same as drawX(r, c), for drawing code that has a grid rather than a PackedMaze.
+   * @param isHex True for a hex maze, whose odd rows are shifted right by half a cell.
+   */
+  protected static double drawX(boolean isHex, int r, int c) {
+    if (isHex)
+      return r % 2 * 0.5 + c;
+    return c;
+  } // end of drawX()
+
+
+  /**
+   * @return True if the wall in the direction belongs to the cell rather than to its neighbour,
+   * so drawing these walls of every cell, and the walls on the edge, draws each wall once.
+   */
+  protected static boolean isOwned(int dir) {
+    return dir == EAST || dir == NORTHEAST || dir == NORTHWEST;
+  } // end of isOwned()
+
+
+  /**
+   * Draw a wall of a cell, same shapes as NormalMaze.draw() and HexMaze.draw().
+   * Shared with GenerationAnimator, which draws walls of any MazeGrid.
+   * @param isHex True for a hex maze.
+   * @param r Row coordinate.
+   * @param c Column coordinate, counted from the left edge of the row.
+   * @param dir Direction of the wall.
+   */
+  protected static void drawWall(boolean isHex, int r, int c, int dir) {
+    double x = drawX(isHex, r, c);
+    if (!isHex) {
+      switch (dir) {
+      case EAST: StdDraw.line(x+1, r, x+1, r+1); break;
+      case NORTH: StdDraw.line(x, r+1, x+1, r+1); break;
+      case WEST: StdDraw.line(x, r, x, r+1); break;
+      case SOUTH: StdDraw.line(x, r, x+1, r); break;
+      }
+      return;
+    }
+
+    double halfEdge = 1.0 / 3;
+    switch (dir) {
+    case EAST: StdDraw.line(x+1, r+0.5-halfEdge, x+1, r+0.5+halfEdge); break;
+    case NORTHEAST: StdDraw.line(x+0.5, r+0.5+2*halfEdge, x+1, r+0.5+halfEdge); break;
+    case NORTHWEST: StdDraw.line(x+0.5, r+0.5+2*halfEdge, x, r+0.5+halfEdge); break;
+    case WEST: StdDraw.line(x, r+0.5-halfEdge, x, r+0.5+halfEdge); break;
+    case SOUTHWEST: StdDraw.line(x, r+0.5-halfEdge, x+0.5, r+0.5-2*halfEdge); break;
+    case SOUTHEAST: StdDraw.line(x+1, r+0.5-halfEdge, x+0.5, r+0.5-2*halfEdge); break;
+    }
+  } // end of drawWall()
+
+
+  /**
+   * @param cell Entrance or exit.
+   * @return First direction of the cell leading out of the maze, left undrawn as the opening.
+   */
+  protected int openingDir(int cell) {
+    for (int dir : dirs())
+      if (neighbour(cell, dir) < 0)
+        return dir;
+    return -1;
+  } // end of openingDir()
+
+
+  @Override
+  public void draw() {
+    // draw nothing if visualization is switched off
+    if (!isVisu)
+      return;
+
+    syncFromCellMap();
+
+    StdDraw.setCanvasSize(650, 650);
+    StdDraw.setXscale(-1, sizeC + (type == HEX ? 1.5 : 1));
+    StdDraw.setYscale(-1, sizeR+1);
+
+    // draw entrance
+    StdDraw.setPenColor(StdDraw.BLUE);
+    StdDraw.filledCircle(drawX(row(entranceIdx), col(entranceIdx)) + 0.5, row(entranceIdx) + 0.5, 0.375);
+
+    // draw exit
+    StdDraw.setPenColor(StdDraw.RED);
+    StdDraw.filledCircle(drawX(row(exitIdx), col(exitIdx)) + 0.5, row(exitIdx) + 0.5, 0.375);
+
+    // draw walls, each inner wall once from the cell owning it and every edge wall
+    int entOpening = openingDir(entranceIdx);
+    int exitOpening = openingDir(exitIdx);
+    StdDraw.setPenColor(StdDraw.BLACK);
+    for (int r = 0; r < sizeR; r++) {
+      for (int c = 0; c < sizeC; c++) {
+        int cell = index(r, c);
+        for (int dir : dirs()) {
+          if ((cell == entranceIdx && dir == entOpening) || (cell == exitIdx && dir == exitOpening))
+            continue;
+          long bit = wallBit(cell, dir);
+          if (bit < 0 || (slot[dir] >= 0 && !isOpen(bit)))
+            drawWall(type == HEX, r, c, dir);
+        }
+      }
+    }
+
+    // draw the tunnels
+    Color[] colors = {Color.CYAN, Color.GREEN, Color.MAGENTA, Color.ORANGE,
+      Color.PINK, Color.YELLOW, StdDraw.BOOK_BLUE, StdDraw.BOOK_LIGHT_BLUE,
+      StdDraw.BOOK_RED};
+    int numTunnelDrawn = 0;
+    StdDraw.setPenRadius(0.005);
+    for (int i = 0; i < tunnelFrom.length; i++) {
+      if (tunnelFrom[i] > tunnelDest[i])
+        continue;
+      StdDraw.setPenColor(colors[numTunnelDrawn % colors.length]);
+      for (int end : new int[] { tunnelFrom[i], tunnelDest[i] }) {
+        double x = drawX(row(end), col(end));
+        int y = row(end);
+        StdDraw.line(x+0.9, y+0.1, x+0.9, y+0.9);
+        StdDraw.line(x+0.1, y+0.9, x+0.9, y+0.9);
+        StdDraw.line(x+0.1, y+0.1, x+0.1, y+0.9);
+        StdDraw.line(x+0.1, y+0.1, x+0.9, y+0.1);
+      }
+      numTunnelDrawn++;
+    }
+    StdDraw.setPenRadius();
+  } // end of draw()
+
+
+  @Override
+  public void drawFtPrt(Cell cell) {
+    int c = cell.c;
+    if (type == HEX)
+      c -= (cell.r + 1) / 2;
+    drawFtPrt(index(cell.r, c));
+  } // end of drawFtPrt()
+
+
+  @Override
+  public void drawFtPrt(int cell) {
+    // record every cell drawn
+    recorded[cell >>> 6] |= 1L << cell;
+
+    // draw nothing if visualization is switched off
+    if (!isVisu)
+      return;
+
+    if (ftPrtBuffer != null)
+      ftPrtBuffer.record(cell);
+    else
+      paintFtPrt(cell);
+  } // end of drawFtPrt()
+
+
+  @Override
+  protected void paintFtPrt(Cell cell) {
+    int c = cell.c;
+    if (type == HEX)
+      c -= (cell.r + 1) / 2;
+    paintFtPrt(index(cell.r, c));
+  } // end of paintFtPrt()
+
+
+  protected void paintFtPrt(int cell) {
+    int r = row(cell);
+    StdDraw.setPenColor(StdDraw.GRAY);
+    StdDraw.filledCircle(drawX(r, col(cell)) + 0.5, r + 0.5, 0.25);
+  } // end of paintFtPrt()
+
+
+  @Override
+  public void bufferFootprints(double framesPerSecond) {
+    // slots are cell indices, so no cell map is needed
+    ftPrtBuffer = new FootprintBuffer(numCells(), framesPerSecond, this::paintFtPrt);
+  } // end of bufferFootprints()
+
+
+  @Override
+  public boolean validate() {
+    syncFromCellMap();
+
+    boolean isValid = true;
+    int pathLength = 0;
+    int count = 0;
+
+    // breadth first search over recorded cells, one level per step
+    int n = numCells();
+    long reached[] = new long[recorded.length];
+    int queue[] = new int[n];
+    int head = 0, tail = 0;
+    queue[tail++] = entranceIdx;
+    reached[entranceIdx >>> 6] |= 1L << entranceIdx;
+
+    int step = 0;
+    while (head < tail) {
+      int levelEnd = tail;
+      step++;
+      while (head < levelEnd) {
+        int cell = queue[head++];
+        count++;
+        if (cell == exitIdx)
+          pathLength = step;
+
+        for (int dir : dirs()) {
+          int next = neighbour(cell, dir);
+          if (next >= 0 && !isWallPresent(cell, dir))
+            tail = reach(next, reached, queue, tail);
+        }
+        int next = tunnelTo(cell);
+        if (next >= 0)
+          tail = reach(next, reached, queue, tail);
+      }
+    }
+
+    if (pathLength == 0) {
+      isValid = false;
+      System.out.println("[Validation] Exit is not reached.");
+    }
+
+    for (int i = 0; isValid && i < recorded.length; i++) {
+      if ((recorded[i] & ~reached[i]) != 0) {
+        isValid = false;
+        System.out.println("[Validation] Visited cell not reachable.");
+      }
+    }
+
+    if (isValid) {
+      System.out.println("[Validation] Number of cells visited = " + count);
+      System.out.println("[Validation] Path length of the solution = " + pathLength);
+    }
+
+    validPathLength = isValid ? pathLength : 0;
+    return isValid;
+  } // end of validate()
+
+
+  /**
+   * Queue a recorded cell for validate() if it hasn't been reached yet.
+   * @return New tail of the queue.
+   */
+  private int reach(int cell, long reached[], int queue[], int tail) {
+    if (isRecorded(cell) && (reached[cell >>> 6] & (1L << cell)) == 0) {
+      reached[cell >>> 6] |= 1L << cell;
+      queue[tail++] = cell;
+    }
+    return tail;
+  } // end of reach()
+
+} // end of class PackedMaze
@@ -0,0 +1,182 @@
+package maze;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Parallel version of PerfectChecker for large mazes.
+ *
+ * The rows are cut into bands and each band unions the passages lying inside it
+ * in a ForkJoinPool. Bands only touch the union-find entries of their own cells,
+ * so they share one int array without locking. Passages crossing from the last
+ * row of a band into the next band, and the tunnels, are then merged on the
+ * calling thread. The maze is perfect when no passage closes a loop and there
+ * are cells - 1 passages in total.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class ParallelPerfectChecker {
+
+  /**
+   * Bands per thread of the pool, a few more than one so a slow band doesn't hold the rest up.
+   */
+  public final static int BANDS_PER_THREAD = 4;
+
+  /**
+   * Bands are never cut smaller than this many cells.
+   */
+  public final static int MIN_BAND_CELLS = 1 << 16;
+
+
+  /**
+   * @param grid Maze to check, it must not be changed while being checked.
+   * @return true if it is perfect maze, i.e. every cell can be visited and there is no loop.
+   */
+  public static boolean isPerfect(MazeGrid grid) {
+    return isPerfect(grid, ForkJoinPool.commonPool());
+  } // end of isPerfect()
+
+
+  /**
+   * @param grid Maze to check, it must not be changed while being checked.
+   * @param pool Pool to run the bands in.
+   * @return true if it is perfect maze, i.e. every cell can be visited and there is no loop.
+   */
+  public static boolean isPerfect(MazeGrid grid, ForkJoinPool pool) {
+    int sizeR = grid.sizeR();
+    int sizeC = grid.sizeC();
+    int ownDirs[] = grid.type() == Maze.HEX ? Maze.hexOwnDir : Maze.squareOwnDir;
+
+    // split the rows into bands
+    int rowsPerBand = Math.max(1, MIN_BAND_CELLS / Math.max(1, sizeC));
+    rowsPerBand = Math.max(rowsPerBand, (sizeR + pool.getParallelism() * BANDS_PER_THREAD - 1) / (pool.getParallelism() * BANDS_PER_THREAD));
+    int numBands = (sizeR + rowsPerBand - 1) / rowsPerBand;
+
+    UnionFind sets = new UnionFind(grid.numCells());
+    Checker checker = new Checker(grid, sets, ownDirs);
+    Band bands[] = new Band[numBands];
+    for (int i = 0; i < numBands; i++)
+      bands[i] = new Band(checker, i * rowsPerBand, Math.min(sizeR, (i + 1) * rowsPerBand));
+    pool.invoke(new RecursiveAction() {
+      @Override
+      protected void compute() {
+        invokeAll(bands);
+      }
+    });
+    if (checker.hasLoop)
+      return false;
+
+    // merge the passages going across bands, and the tunnels
+    long passages = 0;
+    for (Band band : bands) {
+      passages += band.passages;
+      int bandEnd = band.endR * sizeC;
+      if (band.endR < sizeR) {
+        for (int cell = bandEnd - sizeC; cell < bandEnd; cell++) {
+          for (int dir : ownDirs) {
+            int next = grid.passage(cell, dir);
+            if (next < bandEnd)
+              continue;
+            passages++;
+            if (!sets.union(cell, next))
+              return false;
+          }
+        }
+      }
+      for (int i = 0; i < band.numTunnels; i++) {
+        passages++;
+        if (!sets.union(band.tunnels[i], grid.tunnelTo(band.tunnels[i])))
+          return false;
+      }
+    }
+
+    // with cells - 1 passages and no loop every cell is connected
+    return passages == grid.numCells() - 1;
+  } // end of isPerfect()
+
+
+  /**
+   * State shared by the bands of one check.
+   */
+  private static class Checker {
+    final MazeGrid grid;
+    final UnionFind sets;
+    final int ownDirs[];
+
+    /**
+     * Set by the first band finding a loop, so the others can give up early.
+     */
+    volatile boolean hasLoop = false;
+
+    Checker(MazeGrid grid, UnionFind sets, int ownDirs[]) {
+      this.grid = grid;
+      this.sets = sets;
+      this.ownDirs = ownDirs;
+    } // end of Checker()
+  } // end of class Checker
+
+
+  /**
+   * Unions the passages between cells of rows startR to endR - 1.
+   */
+  private static class Band extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    final Checker checker;
+    final int startR;
+    final int endR;
+
+    /**
+     * Number of passages inside the band.
+     */
+    long passages = 0;
+
+    /**
+     * Cells of the band at the lower index end of a tunnel.
+     */
+    int tunnels[] = new int[0];
+    int numTunnels = 0;
+
+    Band(Checker checker, int startR, int endR) {
+      this.checker = checker;
+      this.startR = startR;
+      this.endR = endR;
+    } // end of Band()
+
+    @Override
+    protected void compute() {
+      MazeGrid grid = checker.grid;
+      UnionFind sets = checker.sets;
+      int bandStart = startR * grid.sizeC();
+      int bandEnd = endR * grid.sizeC();
+
+      for (int cell = bandStart; cell < bandEnd; cell++) {
+        for (int dir : checker.ownDirs) {
+          // owned directions only lead to the same or a later row, anything past the band is merged later
+          int next = grid.passage(cell, dir);
+          if (next < 0 || next >= bandEnd)
+            continue;
+          passages++;
+          if (!sets.union(cell, next)) {
+            checker.hasLoop = true;
+            return;
+          }
+        }
+
+        if (grid.tunnelTo(cell) > cell) {
+          if (numTunnels == tunnels.length)
+            tunnels = Arrays.copyOf(tunnels, Math.max(4, 2 * numTunnels));
+          tunnels[numTunnels++] = cell;
+        }
+
+        // check now and then whether another band has already found a loop
+        if ((cell & 0xffff) == 0 && checker.hasLoop)
+          return;
+      }
+    } // end of compute()
+  } // end of class Band
+
+} // end of class ParallelPerfectChecker
@@ -0,0 +1,64 @@
+package maze;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Checks whether a maze is perfect, shared by every type of maze.
+ *
+ * A maze is perfect when every cell can be reached and there is no loop, which holds
+ * exactly when it has one less passage than cells and no passage closes a loop.
+ * Tunnels count as passages. Runs in linear time with one int per cell of extra memory.
+ * Mazes of PARALLEL_CELLS cells or more are handed to ParallelPerfectChecker when
+ * there is more than one core to run it on.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class PerfectChecker {
+
+  /**
+   * Smallest maze checked in parallel, below this splitting up the work isn't worth it.
+   */
+  public final static int PARALLEL_CELLS = 1 << 22;
+
+
+  /**
+   * @param grid Maze to check.
+   * @return true if it is perfect maze, i.e. every cell can be visited and there is no loop.
+   */
+  public static boolean isPerfect(MazeGrid grid) {
+    int n = grid.numCells();
+    if (n >= PARALLEL_CELLS && ForkJoinPool.getCommonPoolParallelism() > 1)
+      return ParallelPerfectChecker.isPerfect(grid);
+
+    int ownDirs[] = grid.type() == Maze.HEX ? Maze.hexOwnDir : Maze.squareOwnDir;
+
+    // a tree on n cells has exactly n - 1 passages, counting each wall once from the cell owning it
+    long passages = 0;
+    for (int cell = 0; cell < n; cell++) {
+      for (int dir : ownDirs)
+        if (grid.passage(cell, dir) >= 0)
+          passages++;
+      if (grid.tunnelTo(cell) > cell)
+        passages++;
+    }
+    if (passages != n - 1)
+      return false;
+
+    // with n - 1 passages and no loop every cell is connected
+    UnionFind sets = new UnionFind(n);
+    for (int cell = 0; cell < n; cell++) {
+      for (int dir : ownDirs) {
+        int next = grid.passage(cell, dir);
+        if (next >= 0 && !sets.union(cell, next))
+          return false;
+      }
+      int next = grid.tunnelTo(cell);
+      if (next > cell && !sets.union(cell, next))
+        return false;
+    }
+
+    return true;
+  } // end of isPerfect()
+
+} // end of class PerfectChecker
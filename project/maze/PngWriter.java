@@ -0,0 +1,155 @@
+package maze;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a 24 bit RGB PNG image one row at a time, so an image never has to be
+ * held in memory as a whole. Needs no display or AWT.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class PngWriter implements Closeable {
+
+  protected final static byte SIGNATURE[] = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+  /**
+   * Largest amount of compressed data put in one IDAT chunk.
+   */
+  protected final static int CHUNK_BYTES = 1 << 16;
+
+  protected DataOutputStream out;
+  protected int width;
+  protected int height;
+  protected int rowsWritten = 0;
+
+  protected Deflater deflater;
+
+  /**
+   * Filter type byte followed by the RGB bytes of a row.
+   */
+  protected byte row[];
+
+  /**
+   * Compressed data waiting to be written as an IDAT chunk.
+   */
+  protected byte chunk[] = new byte[CHUNK_BYTES];
+  protected int chunkLength = 0;
+
+
+  /**
+   * Start an image, writing the PNG signature and header.
+   * @param out Stream to write to, closed by close().
+   * @param width Width in pixels.
+   * @param height Height in pixels.
+   * @param level Deflater compression level, Deflater.BEST_SPEED for the fastest output.
+   */
+  public PngWriter(OutputStream out, int width, int height, int level) throws IOException {
+    if (width < 1 || height < 1 || 3L * width + 1 > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Image of " + width + " x " + height + " can't be written.");
+    this.out = new DataOutputStream(out);
+    this.width = width;
+    this.height = height;
+    this.deflater = new Deflater(level);
+    this.row = new byte[3 * width + 1];
+
+    this.out.write(SIGNATURE);
+    byte header[] = new byte[13];
+    putInt(header, 0, width);
+    putInt(header, 4, height);
+    header[8] = 8;  // bits per channel
+    header[9] = 2;  // truecolour
+    header[10] = 0; // deflate
+    header[11] = 0; // adaptive filtering
+    header[12] = 0; // no interlace
+    writeChunk("IHDR", header, header.length);
+  } // end of PngWriter()
+
+
+  /**
+   * Write the next row of the image, from top to bottom.
+   * @param rgb Pixels as 0xRRGGBB, the top bits are ignored.
+   * @param offset Index of the first pixel of the row in rgb.
+   */
+  public void writeRow(int rgb[], int offset) throws IOException {
+    if (rowsWritten == height)
+      throw new IllegalStateException("All " + height + " rows have already been written.");
+
+    // filter type 0, rows of a maze are mostly the same colour so they compress well unfiltered
+    row[0] = 0;
+    for (int x = 0, i = 1; x < width; x++) {
+      int pixel = rgb[offset + x];
+      row[i++] = (byte) (pixel >>> 16);
+      row[i++] = (byte) (pixel >>> 8);
+      row[i++] = (byte) pixel;
+    }
+    deflater.setInput(row);
+    while (!deflater.needsInput())
+      deflate();
+    rowsWritten++;
+  } // end of writeRow()
+
+
+  /**
+   * Finish the image and close the stream. Rows not written are left white.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      if (rowsWritten < height) {
+        int white[] = new int[width];
+        Arrays.fill(white, 0xffffff);
+        while (rowsWritten < height)
+          writeRow(white, 0);
+      }
+      deflater.finish();
+      while (!deflater.finished())
+        deflate();
+      writeChunk("IDAT", chunk, chunkLength);
+      writeChunk("IEND", chunk, 0);
+      out.flush();
+    } finally {
+      deflater.end();
+      out.close();
+    }
+  } // end of close()
+
+
+  /**
+   * Compress into the pending IDAT chunk, writing it out once full.
+   */
+  protected void deflate() throws IOException {
+    chunkLength += deflater.deflate(chunk, chunkLength, chunk.length - chunkLength);
+    if (chunkLength == chunk.length) {
+      writeChunk("IDAT", chunk, chunkLength);
+      chunkLength = 0;
+    }
+  } // end of deflate()
+
+
+  protected void writeChunk(String type, byte data[], int length) throws IOException {
+    byte typeBytes[] = type.getBytes("US-ASCII");
+    CRC32 crc = new CRC32();
+    crc.update(typeBytes);
+    crc.update(data, 0, length);
+    out.writeInt(length);
+    out.write(typeBytes);
+    out.write(data, 0, length);
+    out.writeInt((int) crc.getValue());
+  } // end of writeChunk()
+
+
+  protected static void putInt(byte data[], int offset, int value) {
+    data[offset] = (byte) (value >>> 24);
+    data[offset + 1] = (byte) (value >>> 16);
+    data[offset + 2] = (byte) (value >>> 8);
+    data[offset + 3] = (byte) value;
+  } // end of putInt()
+
+} // end of class PngWriter
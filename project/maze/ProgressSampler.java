@@ -0,0 +1,105 @@
+package maze;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Reports how far a generator or solver has got as maze.Progress JFR events,
+ * so a long run can be followed in JDK Mission Control: how many cells are
+ * done, how large the frontier or stack is and how often it has backtracked.
+ *
+ * The algorithm counts its steps and calls sample() every SAMPLE_STEPS of them,
+ * then once more when it is done. Each event covers the time since the previous
+ * one. Nothing is recorded unless the JVM runs a flight recording, e.g.
+ * java -XX:StartFlightRecording=filename=run.jfr MazeTester ... An algorithm
+ * that has to work a count out just for the sample checks isEnabled() first.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class ProgressSampler {
+
+  /**
+   * Steps between samples, a power of 2 so (steps & SAMPLE_MASK) == 0 picks them.
+   */
+  public final static int SAMPLE_STEPS = 1 << 14;
+  public final static int SAMPLE_MASK = SAMPLE_STEPS - 1;
+
+  /**
+   * JFR event of one sample. Counts an algorithm doesn't keep are -1.
+   */
+  @Name("maze.Progress")
+  @Label("Maze Progress")
+  @Category("Maze")
+  @Description("Sampled progress of a maze generator or solver")
+  @StackTrace(false)
+  static class ProgressEvent extends Event {
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Total Cells")
+    int totalCells;
+
+    @Label("Cells Visited")
+    int cellsVisited;
+
+    @Label("Frontier Size")
+    @Description("Cells waiting to be grown from or explored")
+    int frontierSize;
+
+    @Label("Stack Depth")
+    int stackDepth;
+
+    @Label("Backtracks")
+    @Description("Dead ends backed out of")
+    int backtracks;
+  } // end of class ProgressEvent
+
+  protected String algorithm;
+  protected int totalCells;
+  protected ProgressEvent event;
+
+
+  /**
+   * @param algorithm Object running, named by its class in the events.
+   * @param totalCells Number of cells of the maze.
+   */
+  public ProgressSampler(Object algorithm, int totalCells) {
+    this.algorithm = algorithm.getClass().getSimpleName();
+    this.totalCells = totalCells;
+    event = new ProgressEvent();
+    event.begin();
+  } // end of ProgressSampler()
+
+
+  /**
+   * @return Whether samples are being recorded, so counts worked out for them are used.
+   */
+  public boolean isEnabled() {
+    return event.isEnabled();
+  } // end of isEnabled()
+
+
+  /**
+   * Record the progress so far, use -1 for counts the algorithm doesn't keep.
+   */
+  public void sample(int cellsVisited, int frontierSize, int stackDepth, int backtracks) {
+    event.end();
+    if (event.shouldCommit()) {
+      event.algorithm = algorithm;
+      event.totalCells = totalCells;
+      event.cellsVisited = cellsVisited;
+      event.frontierSize = frontierSize;
+      event.stackDepth = stackDepth;
+      event.backtracks = backtracks;
+      event.commit();
+    }
+    event = new ProgressEvent();
+    event.begin();
+  } // end of sample()
+
+} // end of class ProgressSampler
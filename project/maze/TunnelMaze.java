@@ -23,47 +23,6 @@ public class TunnelMaze extends NormalMaze {
     }
   } // end of initMaze()
 
-  @Override
-  public boolean isPerfect() {
-    boolean visited[][] = new boolean[sizeR][sizeC];
-    Queue<Cell> queue = new LinkedList<Cell>();
-
-    queue.add(entrance);
-
-    while (!queue.isEmpty()) {
-      Cell cell = queue.poll();
-      Cell next = null;
-      visited[cell.r][cell.c] = true;
-      int visitedNeigh = 0;
-      if (cell.tunnelTo != null) {
-        next = cell.tunnelTo;
-        if (visited[next.r][next.c])
-          visitedNeigh += 1;
-        else
-          queue.add(next);
-      }
-      for (int i = 0; i < NUM_DIR; i++) {
-        next = cell.neigh[i];
-        if (!isIn(next) || cell.wall[i].present)
-          continue;
-        if (visited[next.r][next.c])
-          visitedNeigh += 1;
-        else
-          queue.add(next);
-      }
-
-      if (visitedNeigh > 1)
-        return false;
-    }
-
-    for (int i = 0; i < sizeR; i++)
-      for (int j = 0; j < sizeC; j++)
-        if (!visited[i][j])
-          return false;
-
-    return true;
-  } // end of isPerfect()
-
   @Override
   public void draw() {
     // draw nothing if visualization is switched off
@@ -159,6 +118,7 @@ public class TunnelMaze extends NormalMaze {
       System.out.println("[Validation] Path length of the solution = " + pathLength);
     }
 
+    validPathLength = isValid ? pathLength : 0;
     return isValid;
   } // end of validate()
 
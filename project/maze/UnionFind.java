@@ -0,0 +1,83 @@
+package maze;
+
+import java.util.Arrays;
+
+/**
+ * Disjoint sets of cell indices, with path compression and union by rank.
+ *
+ * The rank of a root is stored in the parent array as -(rank + 1), so the whole
+ * structure is a single int array of one entry per cell.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public class UnionFind {
+
+  /**
+   * parent[i] is the parent of i, or -(rank + 1) if i is a root.
+   */
+  protected int parent[];
+
+
+  /**
+   * Construct n sets each holding a single element.
+   * @param n Number of elements.
+   */
+  public UnionFind(int n) {
+    parent = new int[n];
+    Arrays.fill(parent, -1);
+  } // end of UnionFind()
+
+
+  /**
+   * @param x Element to look up.
+   * @return Root of the set containing x.
+   */
+  public int find(int x) {
+    int root = x;
+    while (parent[root] >= 0)
+      root = parent[root];
+
+    // point everything on the path straight at the root
+    while (parent[x] >= 0) {
+      int next = parent[x];
+      parent[x] = root;
+      x = next;
+    }
+
+    return root;
+  } // end of find()
+
+
+  /**
+   * Merge the sets containing a and b.
+   * @return True if they were in different sets, false if they already were joined.
+   */
+  public boolean union(int a, int b) {
+    int rootA = find(a);
+    int rootB = find(b);
+    if (rootA == rootB)
+      return false;
+
+    // ranks are negative, so the smaller value is the taller tree
+    if (parent[rootA] > parent[rootB]) {
+      int temp = rootA;
+      rootA = rootB;
+      rootB = temp;
+    }
+    if (parent[rootA] == parent[rootB])
+      parent[rootA]--;
+    parent[rootB] = rootA;
+
+    return true;
+  } // end of union()
+
+
+  /**
+   * @return True if a and b are in the same set.
+   */
+  public boolean connected(int a, int b) {
+    return find(a) == find(b);
+  } // end of connected()
+
+} // end of class UnionFind
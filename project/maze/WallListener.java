@@ -0,0 +1,20 @@
+package maze;
+
+/**
+ * Told about every wall a generator puts up or carves through a MazeGrid,
+ * so generation can be watched or recorded as it happens.
+ * Called on the generating thread, so it has to return quickly.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public interface WallListener {
+
+  /**
+   * @param cell Index of the cell.
+   * @param dir Direction of the wall.
+   * @param present True if the wall was put up, false if it was carved.
+   */
+  public void wallChanged(int cell, int dir, boolean present);
+
+} // end of interface WallListener
@@ -0,0 +1,126 @@
+package mazeGenerator;
+
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+
+/**
+ * Policy used by GrowingTreeGenerator to choose which active cell to grow the maze from.
+ * Always picking the newest cell gives long winding passages like the recursive
+ * backtracker, picking a random one gives short branches like Prim's.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public interface CellSelector {
+
+  /**
+   * Choose an active cell.
+   * @param size Number of active cells, at least 1.
+   * @param rand Random generator of the current run.
+   * @return Position of the chosen cell, 0 is the oldest and size - 1 the newest.
+   */
+  public int select(int size, SplittableRandom rand);
+
+
+  /**
+   * Choose an active cell when some positions are gaps left by removed cells,
+   * as GrowingTreeGenerator keeps the order of its cells that way. The oldest
+   * and newest positions are never gaps. By default choose again on a gap,
+   * and after MAX_TRIES take the nearest newer cell, as a policy that doesn't
+   * use rand would keep choosing the same gap.
+   * @param size Number of positions, at least 1.
+   * @param rand Random generator of the current run.
+   * @param isCell Whether a position holds a cell.
+   * @return Position of the chosen cell, 0 is the oldest and size - 1 the newest.
+   */
+  public default int select(int size, SplittableRandom rand, IntPredicate isCell) {
+    int position = select(size, rand);
+    for (int tries = 1; !isCell.test(position) && tries < MAX_TRIES; tries++)
+      position = select(size, rand);
+    while (!isCell.test(position))
+      position++;
+    return position;
+  } // end of select()
+
+  /**
+   * Choices made before giving up on a gap. Gaps are at most half of the
+   * positions, so a uniform choice rarely needs more than a few.
+   */
+  public final static int MAX_TRIES = 32;
+
+
+  /**
+   * Always the most recently added cell.
+   */
+  public final static CellSelector NEWEST = (size, rand) -> size - 1;
+
+  /**
+   * Always the least recently added cell.
+   */
+  public final static CellSelector OLDEST = (size, rand) -> 0;
+
+  /**
+   * Any active cell, chosen uniformly.
+   */
+  public final static CellSelector RANDOM = (size, rand) -> rand.nextInt(size);
+
+  /**
+   * The cell in the middle of the active cells.
+   */
+  public final static CellSelector MIDDLE = (size, rand) -> size / 2;
+
+
+  /**
+   * Use one policy most of the time and occasionally another.
+   * @param usual Policy used by default.
+   * @param other Policy used instead with the given chance.
+   * @param chance Chance between 0 and 1 of using other.
+   * @return The combined policy.
+   */
+  public static CellSelector mix(CellSelector usual, CellSelector other, double chance) {
+    // the policy is picked once per choice, then left to choose again on a gap itself
+    return new CellSelector() {
+      @Override
+      public int select(int size, SplittableRandom rand) {
+        return rand.nextDouble() < chance ? other.select(size, rand) : usual.select(size, rand);
+      }
+
+      @Override
+      public int select(int size, SplittableRandom rand, IntPredicate isCell) {
+        return rand.nextDouble() < chance ? other.select(size, rand, isCell) : usual.select(size, rand, isCell);
+      }
+    };
+  } // end of mix()
+
+
+  /**
+   * Read a policy from its name: newest, oldest, random or middle,
+   * or usual-other-chance for a mix, e.g. newest-random-0.1.
+   * @param spec Name of the policy.
+   * @return The policy.
+   * @throws IllegalArgumentException if the name is not recognised or the chance is not between 0 and 1.
+   */
+  public static CellSelector parse(String spec) {
+    String parts[] = spec.split("-");
+    if (parts.length == 3) {
+      double chance = Double.parseDouble(parts[2]);
+      if (!(chance >= 0 && chance <= 1))
+        throw new IllegalArgumentException("Chance of cell selection policy not between 0 and 1: " + spec);
+      return mix(parse(parts[0]), parse(parts[1]), chance);
+    }
+
+    switch (spec) {
+    case "newest":
+      return NEWEST;
+    case "oldest":
+      return OLDEST;
+    case "random":
+      return RANDOM;
+    case "middle":
+      return MIDDLE;
+    default:
+      throw new IllegalArgumentException("Unknown cell selection policy: " + spec);
+    }
+  } // end of parse()
+
+} // end of interface CellSelector
@@ -0,0 +1,140 @@
+package mazeGenerator;
+
+import java.util.*;
+
+import maze.Maze;
+import maze.MazeGrid;
+import maze.ProgressSampler;
+
+public class EllerGenerator implements MazeGenerator {
+  // Eller's maze generator. The maze is built one row at a time, remembering only which set
+  // each cell of the current row belongs to, so memory use depends on the width alone and rows
+  // can be streamed to a MazeRowSink instead of a Maze.
+  // Only square mazes are supported, tunnels are ignored.
+
+  @Override
+  public void generateMaze(Maze maze, long seed) {
+    if (maze.type == Maze.HEX)
+      throw new IllegalArgumentException("Eller's algorithm only generates square mazes.");
+
+    MazeGrid grid = maze.grid();
+    // Carve the walls of each row into the maze as it is produced
+    generate(grid.sizeR(), grid.sizeC(), seed, (r, eastOpen, northOpen) -> {
+      for (int c = 0; c < eastOpen.length; c++) {
+        if (eastOpen[c])
+          grid.setWallPresent(grid.index(r, c), Maze.EAST, false);
+        if (northOpen[c])
+          grid.setWallPresent(grid.index(r, c), Maze.NORTH, false);
+      }
+    });
+  } // end of generateMaze()
+
+  // Generate a perfect square maze of the given size, passing each row to the sink in order.
+  // The same seed always gives the same maze
+  public void generate(int rows, int cols, long seed, MazeRowSink sink) {
+    SplittableRandom rand = new SplittableRandom(seed);
+
+    // Set of each cell in the current row. There are never more sets than cells in a row,
+    // so set labels are kept between 0 and cols - 1 and reused once no cell has them
+    int[] set = new int[cols];
+    // Merges of sets within the current row, parent[label] is the label it was merged into
+    int[] parent = new int[cols];
+    // Per set: cells of the current row not yet given a vertical decision, and whether one goes north
+    int[] cellsLeft = new int[cols];
+    boolean[] goesNorth = new boolean[cols];
+    boolean[] labelUsed = new boolean[cols];
+    // Walls carved in the current row, handed to the sink
+    boolean[] eastOpen = new boolean[cols];
+    boolean[] northOpen = new boolean[cols];
+    // Progress reported to JFR about every so many cells, with the sets carried into the next row
+    // as the frontier. Streamed mazes can have more cells than an int holds, so counts are capped
+    ProgressSampler progress = new ProgressSampler(this, (int) Math.min(Integer.MAX_VALUE, (long) rows * cols));
+    int cellsSinceSample = 0;
+
+    // Every cell of the first row starts in its own set
+    for (int c = 0; c < cols; c++)
+      set[c] = c;
+
+    for (int r = 0; r < rows; r++) {
+      boolean lastRow = (r == rows - 1);
+
+      // 1. Randomly join adjacent cells of different sets, on the last row join all of them
+      for (int label = 0; label < cols; label++)
+        parent[label] = label;
+      for (int c = 0; c < cols - 1; c++) {
+        int left = findSet(parent, set[c]);
+        int right = findSet(parent, set[c + 1]);
+        eastOpen[c] = left != right && (lastRow || rand.nextBoolean());
+        if (eastOpen[c])
+          parent[right] = left;
+      }
+      eastOpen[cols - 1] = false;
+      for (int c = 0; c < cols; c++)
+        set[c] = findSet(parent, set[c]);
+
+      // 2. Randomly carve north from each set, at least once per set so none is cut off
+      Arrays.fill(cellsLeft, 0);
+      Arrays.fill(goesNorth, false);
+      for (int c = 0; c < cols; c++)
+        cellsLeft[set[c]]++;
+      for (int c = 0; c < cols; c++) {
+        int label = set[c];
+        cellsLeft[label]--;
+        northOpen[c] = !lastRow && (rand.nextBoolean() || (cellsLeft[label] == 0 && !goesNorth[label]));
+        if (northOpen[c])
+          goesNorth[label] = true;
+      }
+
+      sink.acceptRow(r, eastOpen, northOpen);
+
+      // 3. Cells above a carved wall keep their set, the rest start in new sets
+      Arrays.fill(labelUsed, false);
+      for (int c = 0; c < cols; c++)
+        if (northOpen[c])
+          labelUsed[set[c]] = true;
+      int nextLabel = 0;
+      for (int c = 0; c < cols; c++) {
+        if (!northOpen[c]) {
+          while (labelUsed[nextLabel])
+            nextLabel++;
+          set[c] = nextLabel;
+          labelUsed[nextLabel] = true;
+        }
+      }
+
+      cellsSinceSample += cols;
+      if (cellsSinceSample >= ProgressSampler.SAMPLE_STEPS || lastRow) {
+        cellsSinceSample = 0;
+        // counting the sets walks the row, only worth it when the sample is recorded
+        int numSets = progress.isEnabled() ? countSets(northOpen, set, labelUsed) : -1;
+        progress.sample((int) Math.min(Integer.MAX_VALUE, (long) (r + 1) * cols), numSets, -1, -1);
+      }
+    }
+  }
+
+  // #################### Utility functions ####################
+  // Number of sets carried north out of the current row
+  private int countSets(boolean[] northOpen, int[] set, boolean[] seen) {
+    Arrays.fill(seen, false);
+    int count = 0;
+    for (int c = 0; c < set.length; c++) {
+      if (northOpen[c] && !seen[set[c]]) {
+        seen[set[c]] = true;
+        count++;
+      }
+    }
+
+    return count;
+  }
+
+  // Find the set a label was merged into, halving the path on the way
+  private int findSet(int[] parent, int label) {
+    while (parent[label] != label) {
+      parent[label] = parent[parent[label]];
+      label = parent[label];
+    }
+
+    return label;
+  }
+
+} // end of class EllerGenerator
@@ -1,217 +1,177 @@
 package mazeGenerator;
 
 import java.util.*;
+import java.util.function.IntPredicate;
 
 import maze.Maze;
-import maze.Cell;
+import maze.MazeGrid;
+import maze.ProgressSampler;
 
 public class GrowingTreeGenerator implements MazeGenerator {
   // NOTE: Comment was originally made here in skeleton code, so left alone.
   // Growing tree maze generator. As it is very general, here we implement as usually pick the most recent cell, but occasionally pick a random cell"
 
-  // Determine which method to use: prim's vs recursive
-  private enum METHOD {
-    RANDOM,
-    RECENT;
+  // Likelihood of random cell selection vs selecting most recent cell
+  final static double DEFAULT_THRESHOLD = 0.1; // 10% chance to use random cell selection
+
+  // Policy choosing which cell of the set to grow from
+  private CellSelector selector;
+
+  public GrowingTreeGenerator() {
+    this(CellSelector.mix(CellSelector.NEWEST, CellSelector.RANDOM, DEFAULT_THRESHOLD));
   }
 
-  // Likelihood of random cell selection vs selecting nearest cell
-  double threshold = 0.1; // 10% chance to use random cell selection
+  public GrowingTreeGenerator(CellSelector selector) {
+    this.selector = selector;
+  }
 
   @Override
-  public void generateMaze(Maze maze) {
-    // colSize for checking off visited cells, default value for normal / tunnel mazes
-    int colSize = maze.sizeC;
-    // Change column dimensions if hex maze used
-    if (maze.type == Maze.HEX)
-      colSize = maze.sizeC + (maze.sizeR + 1) / 2;
+  public void generateMaze(Maze maze, long seed) {
+    SplittableRandom rand = new SplittableRandom(seed);
+    MazeGrid grid = maze.grid();
     // Create array that is used to mark off visited cells
-    boolean visited[][] = new boolean[maze.sizeR][colSize];
+    boolean[] visited = new boolean[grid.numCells()];
 
-    /* Define 'set' (using list instead)
-     * 'Z' to use,  (cellSet used for better naming convention) */
-    List<Cell> cellSet = new ArrayList<Cell>();
+    // Define 'set Z' of active cells
+    CellDeque cellSet = new CellDeque(grid.numCells());
 
     // Select a random starting cell and add it to the cell set
-    Cell startCell = randomizeStartCell(maze);
+    int startCell = rand.nextInt(grid.numCells());
     cellSet.add(startCell);
-    // Visit it, calling maze.drawFtPrt() and generate the rest of the maze
-    visited[startCell.r][startCell.c] = true;
-    generateGrowingTreeMaze(maze, cellSet, visited);
+    // Visit it and generate the rest of the maze
+    visited[startCell] = true;
+    generateGrowingTreeMaze(grid, cellSet, visited, rand);
   }
 
   // #################### Maze generation ####################
-  private void generateGrowingTreeMaze(Maze maze, List<Cell> cellSet, boolean[][] visited) {
-    METHOD method;
-    int rowDiff, colDiff, direction;
+  private void generateGrowingTreeMaze(MazeGrid grid, CellDeque cellSet, boolean[] visited, SplittableRandom rand) {
+    int[] dirs = (grid.type() == Maze.HEX) ? Maze.hexDir : Maze.squareDir;
+    // Reusable buffer of directions leading to unvisited neighbours
+    int[] visitableDirs = new int[Maze.NUM_DIR];
+    // Progress reported to JFR, every so many steps. A cell leaving the set is a backtrack,
+    // with the newest cell policy the set is the backtracker's stack
+    ProgressSampler progress = new ProgressSampler(this, grid.numCells());
+    int steps = 0;
+    int numVisited = cellSet.size();
+    int backtracks = 0;
+
+    IntPredicate isCell = cellSet::isCell;
 
     // Iterate through until set is empty
-    while(!cellSet.isEmpty()) {
-      // Choose method to use based on chance
-      method = selectMethod(threshold);
-      // Select a cell based on the method
-      Cell cell = selectCell(method, cellSet);
-
-      // Check if cell has unvisited neighbours
-      if(!hasVisitableNeighbours(maze, cell, visited))
-        cellSet.remove(cell); // Remove it if all of its neighbours has been visited
+    while (!cellSet.isEmpty()) {
+      // Select a cell based on the policy, among the positions of the set including its gaps
+      int position = selector.select(cellSet.span(), rand, isCell);
+      int cell = cellSet.get(position);
+
+      // Collect directions to unvisited neighbours
+      int numVisitable = 0;
+      for (int dir : dirs) {
+        int next = grid.neighbour(cell, dir);
+        if (next >= 0 && !visited[next])
+          visitableDirs[numVisitable++] = dir;
+      }
+
+      // Remove it if all of its neighbours has been visited
+      if (numVisitable == 0) {
+        cellSet.remove(position);
+        backtracks++;
+      }
       else {
-        // If it has visitable neighbours randomly select one and move to it
-        Cell neighbour = selectRandomNeighbour(maze, cell, visited);
-
-        // Calculate move difference and overall direction
-        rowDiff = neighbour.r - cell.r;
-        colDiff = neighbour.c - cell.c;
-        // Use direction to carve a path using movement calculated
-        direction = getDirection(maze.type, rowDiff, colDiff);
-        maze.map[cell.r][cell.c].wall[direction].present = false;
-        maze.map[cell.r][cell.c].wall[direction].drawn = false;
-
-        // Set the neighbour as visited
-        visited[neighbour.r][neighbour.c] = true;
-        cellSet.add(neighbour);       // Add the neighbour to the set
+        // If it has visitable neighbours randomly select one and carve a path to it
+        int direction = visitableDirs[rand.nextInt(numVisitable)];
+        int neighbour = grid.neighbour(cell, direction);
+        grid.setWallPresent(cell, direction, false);
+
+        // Set the neighbour as visited and add it to the set
+        visited[neighbour] = true;
+        cellSet.add(neighbour);
+        numVisited++;
       }
 
-      // [DEBUG] - Uncomment to view how many cells left to process
-      // System.out.println("Cells to process = " + cellSet.size());
+      if ((++steps & ProgressSampler.SAMPLE_MASK) == 0)
+        progress.sample(numVisited, cellSet.size(), -1, backtracks);
     }
+    progress.sample(numVisited, cellSet.size(), -1, backtracks);
   }
 
-  // #################### Utility functions ####################
-  // Select random starting position for a cell
-  private Cell randomizeStartCell(Maze maze) {
-    Random rand = new Random();
-    int min, row, col;
-    int maxRow = maze.sizeR;
-    int maxCol = maze.sizeC;
-
-    min = 0;  // Arrays start from 0
-    row = rand.nextInt(maxRow) + min;
-
-    // Further restrict values if hex type maze
-    if (maze.type == Maze.HEX) {
-      // Cases: When row is even or odd, which affects col generated
-      if (row % 2 == 0) // Even
-        min = row / 2;
-      else              // Odd
-        min = (row + 1) / 2;
+  // #################### Cell set ####################
+  // Circular buffer of cell indices ordered from oldest to newest. A cell removed from
+  // inside leaves a gap so the order is kept, gaps at the ends are dropped straight away
+  // and the rest squeezed out once they are more than half of the positions in use,
+  // so removal stays constant time on average.
+  // Each cell is added at most once, so the buffer never needs to grow.
+  private static class CellDeque {
+    private final static int GAP = -1;
+
+    private int[] cells;
+    private int head = 0;
+    // Positions in use, cells and gaps
+    private int span = 0;
+    // Cells in the set
+    private int size = 0;
+
+    CellDeque(int capacity) {
+      cells = new int[capacity];
     }
 
-    col = rand.nextInt(maxCol) + min;
-    Cell cell = new Cell(row, col);
-
-    return cell;
-  }
-
-  // Determine which method to use to select a cell from 'set Z'
-  private METHOD selectMethod(double randomChance) {
-    double random = Math.random();
-    METHOD method = METHOD.RECENT;
-
-    // Randomly decide if random method is to be used based on passed in chance
-    if (random <= randomChance)
-      method = METHOD.RANDOM;
-
-    return method;
-  }
+    boolean isEmpty() {
+      return size == 0;
+    }
 
-  // Select cell from set depending on method used
-  private Cell selectCell(METHOD method, List<Cell> cells) {
-    int last = cells.size() - 1;
+    int size() {
+      return size;
+    }
 
-    if (method == METHOD.RECENT) {  // Using method 1: selecting randomly
-      /* Randomly choose a cell from the set, done by converting set to list then
-       * Picking randomly from that list */
-       int index = getRandomCell(cells);
-       return cells.get(index);
+    int span() {
+      return span;
     }
 
-    // Using method 2: selecting recently added (last element)
-    return cells.get(last);
-  }
+    // Whether a position holds a cell rather than a gap. The oldest and newest always do
+    boolean isCell(int position) {
+      return cells[slot(position)] != GAP;
+    }
 
-  // Return index of randomly selected cell from list
-  private int getRandomCell(List<Cell> list) {
-    Random rand = new Random();       // Set up random generator
-    int listSize = list.size();  // Get number of possible directions
-    int index = rand.nextInt(listSize);
+    // Cell at a position, 0 is the oldest
+    int get(int position) {
+      return cells[slot(position)];
+    }
 
-    return index;
-  }
+    // Add as the newest cell
+    void add(int cell) {
+      cells[slot(span)] = cell;
+      span++;
+      size++;
+    }
 
-  // Check if cell still has neighbours to visit
-  private boolean hasVisitableNeighbours(Maze maze, Cell cell, boolean[][] visited) {
-    int row, col;
-
-    // Check in all directions for neighbours
-    for (int i = 0; i < Maze.NUM_DIR; i++) {
-      // Access actual map stored in maze to get neighbours
-      if (maze.map[cell.r][cell.c].neigh[i] != null) {
-        row = maze.map[cell.r][cell.c].neigh[i].r;
-        col = maze.map[cell.r][cell.c].neigh[i].c;
-        // Check if it has been visited or not, if not there is a visitable neighbour
-        if(!visited[row][col])
-          return true;
+    // Remove the cell at a position, keeping the order of the others
+    void remove(int position) {
+      cells[slot(position)] = GAP;
+      size--;
+      while (span > 0 && cells[slot(span - 1)] == GAP)
+        span--;
+      while (span > 0 && cells[head] == GAP) {
+        head = slot(1);
+        span--;
       }
+      if (span - size > size)
+        compact();
     }
 
-    // All neighbours visited or there are no neighbours
-    return false;
-  }
-
-  // Select random unvisited neighbour
-  private Cell selectRandomNeighbour(Maze maze, Cell cell, boolean[][] visited) {
-    List<Cell> visitableNeighbours = new ArrayList<Cell>();
-    int index, row, col;
-
-    // 1. Store all visitable neighbours in a list
-    for (int i = 0; i < Maze.NUM_DIR; i++) {
-      // Access actual map stored in maze to get neighbours
-      if(maze.map[cell.r][cell.c].neigh[i] != null) {
-        row = maze.map[cell.r][cell.c].neigh[i].r;
-        col = maze.map[cell.r][cell.c].neigh[i].c;
-        // Check if it has been visited or not, if not there is a visitable neighbour
-        if(!visited[row][col])
-          visitableNeighbours.add(maze.map[cell.r][cell.c].neigh[i]);
+    // Move the cells down over the gaps
+    private void compact() {
+      int to = 0;
+      for (int from = 0; from < span; from++) {
+        int cell = get(from);
+        if (cell != GAP)
+          cells[slot(to++)] = cell;
       }
+      span = size;
     }
 
-    // 2. Randomly select one and return it
-    index = getRandomCell(visitableNeighbours);
-    return visitableNeighbours.get(index);
-  }
-
-  // Get direction based on row/col shift input
-  private int getDirection(int type, int row, int col) {
-    // Using definitions (row,col):
-    // North = 1,0      | East = 0,1      | South = -1,0     | West = 0,-1
-    // NorthEast = 1,1  | NorthWest = 1,0 | SouthEAST = -1,0 | SouthWest = -1,-1
-
-    // Rectangle/Normal type maze
-    if (type == Maze.NORMAL) {
-      if (row == 1)
-        return Maze.NORTH;
-      if (row == -1)
-        return Maze.SOUTH;
-      if (col == -1)
-        return Maze.WEST;
-    }
-    else {
-      // Hex type maze
-      if (row == 1 && col == 1)
-        return Maze.NORTHEAST;
-      if (row == 1 && col == 0)
-        return Maze.NORTHWEST;
-      if (row == -1 && col == 0)
-        return Maze.SOUTHEAST;
-      if (row == -1 && col == -1)
-        return Maze.SOUTHWEST;
-      if (row == 0 && col == -1)
-        return Maze.WEST;
+    // Index in the buffer of a position, without overflowing head + position
+    private int slot(int position) {
+      return head >= cells.length - position ? head - (cells.length - position) : head + position;
     }
-
-    // Default just return east, so its not checked
-    return Maze.EAST;
   }
 
 } // end of class GrowingTreeGenerator
@@ -0,0 +1,77 @@
+package mazeGenerator;
+
+import java.util.*;
+
+import maze.Maze;
+import maze.MazeGrid;
+import maze.UnionFind;
+
+public class KruskalGenerator implements MazeGenerator {
+  // Kruskal's maze generator. Every inner wall is put in a list which is shuffled once,
+  // then each wall is carved if the cells on either side are not yet connected.
+  // Works on maze.grid() so it runs on packed mazes without building Cell objects.
+
+  @Override
+  public void generateMaze(Maze maze, long seed) {
+    MazeGrid grid = maze.grid();
+    int numCells = grid.numCells();
+    // Directions each cell owns, every inner wall belongs to exactly one cell
+    int[] ownDirs = (grid.type() == Maze.HEX) ? Maze.hexOwnDir : Maze.squareOwnDir;
+    UnionFind sets = new UnionFind(numCells);
+
+    // Tunnels already connect their two ends, join them first so no loop is made through them
+    int toJoin = numCells - 1;
+    for (int cell = 0; cell < numCells; cell++) {
+      int other = grid.tunnelTo(cell);
+      if (other > cell && sets.union(cell, other))
+        toJoin--;
+    }
+
+    // Build the list of walls, each stored as cell * ownDirs.length + owned direction index
+    int[] walls = buildWallList(grid, ownDirs);
+    shuffle(walls, new SplittableRandom(seed));
+
+    // Carve every wall separating two different sets, stop once all cells are joined
+    for (int i = 0; i < walls.length && toJoin > 0; i++) {
+      int cell = walls[i] / ownDirs.length;
+      int dir = ownDirs[walls[i] % ownDirs.length];
+      if (sets.union(cell, grid.neighbour(cell, dir))) {
+        grid.setWallPresent(cell, dir, false);
+        toJoin--;
+      }
+    }
+  } // end of generateMaze()
+
+  // #################### Utility functions ####################
+  // List every inner wall once
+  private int[] buildWallList(MazeGrid grid, int[] ownDirs) {
+    int numCells = grid.numCells();
+    int count = 0;
+
+    // Count first so the list is a single exact sized array
+    for (int cell = 0; cell < numCells; cell++)
+      for (int dir : ownDirs)
+        if (grid.neighbour(cell, dir) >= 0)
+          count++;
+
+    int[] walls = new int[count];
+    count = 0;
+    for (int cell = 0; cell < numCells; cell++)
+      for (int k = 0; k < ownDirs.length; k++)
+        if (grid.neighbour(cell, ownDirs[k]) >= 0)
+          walls[count++] = cell * ownDirs.length + k;
+
+    return walls;
+  }
+
+  // Fisher-Yates shuffle in place
+  private void shuffle(int[] list, SplittableRandom rand) {
+    for (int i = list.length - 1; i > 0; i--) {
+      int j = rand.nextInt(i + 1);
+      int temp = list[i];
+      list[i] = list[j];
+      list[j] = temp;
+    }
+  }
+
+} // end of class KruskalGenerator
@@ -1,5 +1,7 @@
 package mazeGenerator;
 
+import java.util.SplittableRandom;
+
 import maze.Maze;
 
 /**
@@ -15,5 +17,16 @@ public interface MazeGenerator
    * Function that generate a perfect maze from an all-wall initialized maze.
    * @param maze The reference of Maze object to generate.
    */
-  public void generateMaze(Maze maze);
+  default public void generateMaze(Maze maze) {
+    generateMaze(maze, new SplittableRandom().nextLong());
+  } // end of generateMaze()
+
+
+  /**
+   * Same as generateMaze(maze), but every random choice is drawn from one generator seeded
+   * with seed, so the same seed on the same all-wall maze always gives the same maze.
+   * @param maze The reference of Maze object to generate.
+   * @param seed Seed of the random generator used for the whole run.
+   */
+  public void generateMaze(Maze maze, long seed);
 } // end of interface mazeGenerator
@@ -0,0 +1,22 @@
+package mazeGenerator;
+
+/**
+ * Receives a square maze one row at a time, from a generator that never holds
+ * the whole maze in memory (see EllerGenerator).
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public interface MazeRowSink {
+
+  /**
+   * Receive the next row of the maze. Rows arrive in order starting from row 0.
+   * The arrays are reused for the following row, so copy anything that has to be kept.
+   * @param r Row coordinate.
+   * @param eastOpen eastOpen[c] is true if the wall between (r, c) and (r, c + 1) is carved.
+   * @param northOpen northOpen[c] is true if the wall between (r, c) and (r + 1, c) is carved,
+   * always false on the last row.
+   */
+  public void acceptRow(int r, boolean[] eastOpen, boolean[] northOpen);
+
+} // end of interface MazeRowSink
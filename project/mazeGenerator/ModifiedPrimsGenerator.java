@@ -1,162 +1,82 @@
 package mazeGenerator;
 
-import maze.Wall;
-import maze.Cell;
 import maze.Maze;
+import maze.MazeGrid;
+import maze.ProgressSampler;
 import java.util.*;
 
 public class ModifiedPrimsGenerator implements MazeGenerator {
 
-  @Override
-  public void generateMaze(Maze maze) {
-    Random rand = new Random();
-    int colSize = maze.sizeC;
-    if (maze.type == Maze.HEX)
-      colSize += (maze.sizeR+1) / 2;
-    boolean in[][] = new boolean[maze.sizeR][colSize];
-    List<Cell> cellList = new ArrayList<Cell>();
-    List<Cell> frontier = new ArrayList<Cell>();
-
-    // Pick random starting cell
-    Cell start = randomizeStartCell(maze);
+  // Cell states, kept in one byte per cell so membership checks don't search any list
+  private final static byte OUTSIDE = 0;
+  private final static byte IN_FRONTIER = 1;
+  private final static byte IN_MAZE = 2;
 
-    // Add starting cell to set cellList
-    cellList.add(start);
-    in[start.r][start.c] = true;
+  @Override
+  public void generateMaze(Maze maze, long seed) {
+    SplittableRandom rand = new SplittableRandom(seed);
+    MazeGrid grid = maze.grid();
+    int totalCells = grid.numCells();
+    int[] dirs = (grid.type() == Maze.HEX) ? Maze.hexDir : Maze.squareDir;
+    byte[] state = new byte[totalCells];
+
+    // Frontier set, only the first frontierSize entries are used.
+    // A cell enters the frontier at most once so it never needs more than totalCells entries
+    int[] frontier = new int[totalCells];
+    int frontierSize = 0;
+    // Reusable buffer of directions from the selected cell into the maze
+    int[] inMazeDirs = new int[Maze.NUM_DIR];
+    // Progress reported to JFR, every so many cells
+    ProgressSampler progress = new ProgressSampler(this, totalCells);
+    int numInMaze = 1;
+
+    // Pick random starting cell and add it to the maze
+    int start = rand.nextInt(totalCells);
+    state[start] = IN_MAZE;
 
     // Put all neighbouring cells of starting cell into frontier
-    addNeighbours(maze, start, in, frontier);
-    int totalCells = maze.sizeR * maze.sizeC;
-
-    // Iterate until cell list's size is equal to total number of cless (all visited)
-    while (cellList.size() != totalCells) {
-      // Randomly select cell from frontier set
-      Cell selected = frontier.get(rand.nextInt(frontier.size()));
-      // Remove it from frontier set
-      frontier.remove(selected);
-      // Randomly select another cell 'closest' that is in the cellList that is adjacent to selected cell
-      Cell closest = getClosestNeighbour(maze, cellList, selected);
-
-      // Get direction between selected cell and the closest then carve a path
-      int dir = getDirection(maze.type, selected, closest);
-      maze.map[selected.r][selected.c].wall[dir].present = false;
-      maze.map[selected.r][selected.c].wall[dir].drawn = false;
+    frontierSize = addNeighbours(grid, start, dirs, state, frontier, frontierSize);
+
+    // Iterate until frontier is empty (all cells are in the maze)
+    while (frontierSize > 0) {
+      // Randomly select cell from frontier set and remove it by moving the last cell into its place
+      int index = rand.nextInt(frontierSize);
+      int selected = frontier[index];
+      frontierSize--;
+      frontier[index] = frontier[frontierSize];
+
+      // Randomly select a neighbour of the selected cell that is already in the maze
+      int numDirs = 0;
+      for (int dir : dirs) {
+        int next = grid.neighbour(selected, dir);
+        if (next >= 0 && state[next] == IN_MAZE)
+          inMazeDirs[numDirs++] = dir;
+      }
+      int dir = inMazeDirs[rand.nextInt(numDirs)];
 
-      // Add selected cell to set cellList
-      cellList.add(selected);
-      in[selected.r][selected.c] = true;
+      // Carve a path between them and add the selected cell to the maze
+      grid.setWallPresent(selected, dir, false);
+      state[selected] = IN_MAZE;
 
       // Add neighbours of selected cell to the frontier
-      addNeighbours(maze, selected, in, frontier);
+      frontierSize = addNeighbours(grid, selected, dirs, state, frontier, frontierSize);
 
-      // [DEBUG] - Uncomment to view how many cells left to process
-      // System.out.println("Cells to process = " + cellList.size());
+      if ((++numInMaze & ProgressSampler.SAMPLE_MASK) == 0)
+        progress.sample(numInMaze, frontierSize, -1, -1);
     }
+    progress.sample(numInMaze, frontierSize, -1, -1);
   } // end of generateMaze()
 
-  private Cell randomizeStartCell(Maze maze) {
-    Random rand = new Random();
-    int min, row, col;
-    int maxRow = maze.sizeR;
-    int maxCol = maze.sizeC;
-
-    min = 0;  // Arrays start from 0
-    row = rand.nextInt(maxRow) + min;
-
-    // Further restrict values if hex type maze
-    if (maze.type == Maze.HEX) {
-      // Cases: When row is even or odd, which affects col generated
-      if (row % 2 == 0) // Even
-        min = row / 2;
-      else              // Odd
-        min = (row + 1) / 2;
-    }
-
-    col = rand.nextInt(maxCol) + min;
-    Cell cell = new Cell(row, col);
-
-    return cell;
-  }
-
-  private void addNeighbours(Maze maze, Cell cell, boolean[][] visited, List<Cell> frontier) {
-    int index, row, col;
-
-    // Loop through and store all visitable neighbours in a list
-    for (int i = 0; i < Maze.NUM_DIR; i++) {
-      // Access actual map stored in maze to get neighbours
-      if(maze.map[cell.r][cell.c].neigh[i] != null) {
-        row = maze.map[cell.r][cell.c].neigh[i].r;
-        col = maze.map[cell.r][cell.c].neigh[i].c;
-        // Check if it has been visited or not, if not there is a visitable neighbour
-        if(!visited[row][col] && !isInFrontier(frontier, row, col))
-          frontier.add(maze.map[cell.r][cell.c].neigh[i]);  // Add it to the list
-      }
-    }
-  }
-
-  private boolean isInFrontier(List<Cell> frontier, int row, int col) {
-    for (Cell c : frontier) {
-      if (c.r == row && c.c == col)
-        return true;
-    }
-
-    return false;
-  }
-
-  private Cell getClosestNeighbour(Maze maze, List<Cell> cellList, Cell cell) {
-    Cell closest = new Cell();
-    List<Cell> closestNeighbours = new ArrayList<Cell>();
-
-    for (int i = 0; i < Maze.NUM_DIR; i++) {
-      // Access actual map stored in maze to get neighbours
-      if(maze.map[cell.r][cell.c].neigh[i] != null) {
-        int row = maze.map[cell.r][cell.c].neigh[i].r;
-        int col = maze.map[cell.r][cell.c].neigh[i].c;
-        // Check if it has been visited or not, if not there is a visitable neighbour
-        for (Cell c : cellList) {
-          if (row == c.r && col == c.c)
-            closestNeighbours.add(c);
-        }
+  // Add neighbours that are neither in the maze nor the frontier, returns the new frontier size
+  private int addNeighbours(MazeGrid grid, int cell, int[] dirs, byte[] state, int[] frontier, int frontierSize) {
+    for (int dir : dirs) {
+      int next = grid.neighbour(cell, dir);
+      if (next >= 0 && state[next] == OUTSIDE) {
+        state[next] = IN_FRONTIER;
+        frontier[frontierSize++] = next;
       }
     }
-    Random rand = new Random();
-    closest = closestNeighbours.get(rand.nextInt(closestNeighbours.size()));
-
-    return closest;
-  }
-
-  private int getDirection(int type, Cell start, Cell end) {
-    int row = end.r - start.r;
-    int col = end.c - start.c;
-
-    // Using definitions (row,col):
-    // North = 1,0      | East = 0,1      | South = -1,0     | West = 0,-1
-    // NorthEast = 1,1  | NorthWest = 1,0 | SouthEAST = -1,0 | SouthWest = -1,-1
-
-    // Rectangle/Normal type maze
-    if (type == Maze.NORMAL) {
-      if (row == 1)
-        return Maze.NORTH;
-      if (row == -1)
-        return Maze.SOUTH;
-      if (col == -1)
-        return Maze.WEST;
-    }
-    else {
-      // Hex type maze
-      if (row == 1 && col == 1)
-        return Maze.NORTHEAST;
-      if (row == 1 && col == 0)
-        return Maze.NORTHWEST;
-      if (row == -1 && col == 0)
-        return Maze.SOUTHEAST;
-      if (row == -1 && col == -1)
-        return Maze.SOUTHWEST;
-      if (row == 0 && col == -1)
-        return Maze.WEST;
-    }
 
-    // Default just return east, so its not checked
-    return Maze.EAST;
+    return frontierSize;
   }
 } // end of class ModifiedPrimsGenerator
@@ -0,0 +1,220 @@
+package mazeGenerator;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import maze.Maze;
+import maze.MazeGrid;
+import maze.PackedMaze;
+import maze.UnionFind;
+
+public class ParallelTiledGenerator implements MazeGenerator {
+  // Splits the maze into tiles and generates a perfect sub-maze in each tile concurrently
+  // with another generator. Tiles are built in private packed mazes, as neighbouring cells
+  // of the target can share a word of wall bits, and copied into the target on the calling
+  // thread. Then a random spanning tree over the tiles is built with Kruskal's algorithm and
+  // one wall on the seam between each pair of joined tiles is carved, so the whole maze
+  // stays perfect.
+  // Tunnels inside a tile are given to the tile generator. Tunnels joining two tiles count
+  // as an edge of the tile tree; two tunnels joining the same tiles make a loop, just like
+  // KruskalGenerator can't avoid loops made by tunnels alone.
+
+  // Default tile size, big enough that copying and scheduling cost little next to generating
+  final static int DEFAULT_TILE_SIZE = 256;
+
+  // Tiles generated ahead of the copy, per thread of the pool
+  final static int TILES_IN_FLIGHT_PER_THREAD = 4;
+
+  // Generator used inside each tile, it is shared by all the tiles so must not keep state
+  private MazeGenerator tileGenerator;
+  private int tileRows;
+  private int tileCols;
+  private ForkJoinPool pool;
+
+  public ParallelTiledGenerator(MazeGenerator tileGenerator) {
+    this(tileGenerator, DEFAULT_TILE_SIZE, DEFAULT_TILE_SIZE, ForkJoinPool.commonPool());
+  }
+
+  public ParallelTiledGenerator(MazeGenerator tileGenerator, int tileRows, int tileCols, ForkJoinPool pool) {
+    if (tileRows < 2 || tileCols < 1)
+      throw new IllegalArgumentException("Tiles must be at least 2 rows by 1 column.");
+    this.tileGenerator = tileGenerator;
+    // Hex rows are offset by parity, so tiles must start on even rows for a tile to line up with the maze
+    this.tileRows = tileRows + (tileRows & 1);
+    this.tileCols = tileCols;
+    this.pool = pool;
+  }
+
+  @Override
+  public void generateMaze(Maze maze, long seed) {
+    SplittableRandom rand = new SplittableRandom(seed);
+    MazeGrid grid = maze.grid();
+    Tiling tiling = new Tiling(grid, tileRows, tileCols);
+
+    // One seed per tile taken up front, so the maze doesn't depend on the order tiles finish in
+    long[] tileSeeds = new long[tiling.numTiles];
+    for (int t = 0; t < tiling.numTiles; t++)
+      tileSeeds[t] = rand.nextLong();
+
+    // Generate tiles a few at a time ahead of copying them, so only those tiles are held in memory
+    int window = Math.max(1, pool.getParallelism() * TILES_IN_FLIGHT_PER_THREAD);
+    ArrayDeque<ForkJoinTask<Tile>> inFlight = new ArrayDeque<ForkJoinTask<Tile>>();
+    List<int[]> crossTunnels = new ArrayList<int[]>();
+    for (int t = 0; t < tiling.numTiles; t++) {
+      if (inFlight.size() >= window)
+        copyTile(grid, tiling, inFlight.poll().join(), crossTunnels);
+      int tile = t;
+      long tileSeed = tileSeeds[t];
+      inFlight.add(pool.submit(() -> generateTile(grid, tiling, tile, tileSeed)));
+    }
+    while (!inFlight.isEmpty())
+      copyTile(grid, tiling, inFlight.poll().join(), crossTunnels);
+
+    stitchTiles(grid, tiling, crossTunnels, rand);
+  }
+
+  // #################### Tiles ####################
+  // Generate the sub-maze of one tile, run in the pool
+  private Tile generateTile(MazeGrid grid, Tiling tiling, int tile, long seed) {
+    Tile result = new Tile(tile, tiling);
+
+    // Tunnels with both ends in the tile are part of its sub-maze, the others are joined by the tile tree
+    List<int[]> tunnelList = new ArrayList<int[]>();
+    for (int r = result.startR; r < result.endR; r++) {
+      for (int c = result.startC; c < result.endC; c++) {
+        int cell = grid.index(r, c);
+        int other = grid.tunnelTo(cell);
+        if (other <= cell)
+          continue;
+        if (tiling.tileOf(grid, other) == tile)
+          tunnelList.add(new int[] { r - result.startR, c - result.startC, grid.row(other) - result.startR, grid.col(other) - result.startC });
+        else
+          result.crossTunnels.add(new int[] { cell, other });
+      }
+    }
+
+    result.maze = new PackedMaze(grid.type());
+    result.maze.isVisu = false;
+    result.maze.initMaze(result.endR - result.startR, result.endC - result.startC, 0, 0, 0, 0, tunnelList);
+    tileGenerator.generateMaze(result.maze, seed);
+    return result;
+  }
+
+  // Carve the passages of a generated tile into the maze
+  private void copyTile(MazeGrid grid, Tiling tiling, Tile tile, List<int[]> crossTunnels) {
+    int[] ownDirs = (grid.type() == Maze.HEX) ? Maze.hexOwnDir : Maze.squareOwnDir;
+    PackedMaze sub = tile.maze;
+    for (int cell = 0; cell < sub.numCells(); cell++) {
+      int global = grid.index(tile.startR + sub.row(cell), tile.startC + sub.col(cell));
+      for (int dir : ownDirs)
+        if (sub.passage(cell, dir) >= 0)
+          grid.setWallPresent(global, dir, false);
+    }
+    crossTunnels.addAll(tile.crossTunnels);
+  }
+
+  // Join the tiles with a random spanning tree, carving one seam wall per tree edge
+  private void stitchTiles(MazeGrid grid, Tiling tiling, List<int[]> crossTunnels, SplittableRandom rand) {
+    UnionFind sets = new UnionFind(tiling.numTiles);
+    for (int[] tunnel : crossTunnels)
+      sets.union(tiling.tileOf(grid, tunnel[0]), tiling.tileOf(grid, tunnel[1]));
+
+    // Edges between each tile and the tile to its east or north, stored as tile * 2 + (0 east, 1 north)
+    int[] edges = new int[2 * tiling.numTiles];
+    int numEdges = 0;
+    for (int tile = 0; tile < tiling.numTiles; tile++) {
+      if (tile % tiling.tilesC < tiling.tilesC - 1)
+        edges[numEdges++] = tile * 2;
+      if (tile / tiling.tilesC < tiling.tilesR - 1)
+        edges[numEdges++] = tile * 2 + 1;
+    }
+    for (int i = numEdges - 1; i > 0; i--) {
+      int j = rand.nextInt(i + 1);
+      int temp = edges[i];
+      edges[i] = edges[j];
+      edges[j] = temp;
+    }
+
+    for (int i = 0; i < numEdges; i++) {
+      int tile = edges[i] / 2;
+      boolean isNorth = edges[i] % 2 == 1;
+      int other = isNorth ? tile + tiling.tilesC : tile + 1;
+      if (sets.union(tile, other))
+        carveSeam(grid, tiling, tile, other, isNorth, rand);
+    }
+  }
+
+  // Carve a random wall between a tile and the tile to its east or north
+  private void carveSeam(MazeGrid grid, Tiling tiling, int tile, int other, boolean isNorth, SplittableRandom rand) {
+    int[] dirs = isNorth ? ((grid.type() == Maze.HEX) ? new int[] { Maze.NORTHEAST, Maze.NORTHWEST } : new int[] { Maze.NORTH }) : new int[] { Maze.EAST };
+    Tile bounds = new Tile(tile, tiling);
+
+    // Walls on the seam are along the last row or column of the tile, pick one by reservoir sampling
+    int count = 0;
+    int chosenCell = -1;
+    int chosenDir = -1;
+    int startR = isNorth ? bounds.endR - 1 : bounds.startR;
+    int startC = isNorth ? bounds.startC : bounds.endC - 1;
+    for (int r = startR; r < bounds.endR; r++) {
+      for (int c = startC; c < bounds.endC; c++) {
+        int cell = grid.index(r, c);
+        for (int dir : dirs) {
+          int next = grid.neighbour(cell, dir);
+          if (next >= 0 && tiling.tileOf(grid, next) == other && rand.nextInt(++count) == 0) {
+            chosenCell = cell;
+            chosenDir = dir;
+          }
+        }
+      }
+    }
+    grid.setWallPresent(chosenCell, chosenDir, false);
+  }
+
+  // #################### Utility classes ####################
+  // How the maze is cut into tiles, tiles are numbered row by row from the bottom left
+  private static class Tiling {
+    final int tileRows;
+    final int tileCols;
+    final int sizeR;
+    final int sizeC;
+    final int tilesR;
+    final int tilesC;
+    final int numTiles;
+
+    Tiling(MazeGrid grid, int tileRows, int tileCols) {
+      this.sizeR = grid.sizeR();
+      this.sizeC = grid.sizeC();
+      this.tileRows = Math.min(tileRows, sizeR);
+      this.tileCols = Math.min(tileCols, sizeC);
+      this.tilesR = (sizeR + this.tileRows - 1) / this.tileRows;
+      this.tilesC = (sizeC + this.tileCols - 1) / this.tileCols;
+      this.numTiles = tilesR * tilesC;
+    }
+
+    int tileOf(MazeGrid grid, int cell) {
+      return (grid.row(cell) / tileRows) * tilesC + grid.col(cell) / tileCols;
+    }
+  }
+
+  // Bounds of a tile, and its sub-maze once generated
+  private static class Tile {
+    final int tile;
+    final int startR;
+    final int endR;
+    final int startC;
+    final int endC;
+    PackedMaze maze = null;
+    // Tunnels from the tile to another tile, as { cell, other end }
+    List<int[]> crossTunnels = new ArrayList<int[]>();
+
+    Tile(int tile, Tiling tiling) {
+      this.tile = tile;
+      this.startR = (tile / tiling.tilesC) * tiling.tileRows;
+      this.endR = Math.min(tiling.sizeR, startR + tiling.tileRows);
+      this.startC = (tile % tiling.tilesC) * tiling.tileCols;
+      this.endC = Math.min(tiling.sizeC, startC + tiling.tileCols);
+    }
+  }
+
+} // end of class ParallelTiledGenerator
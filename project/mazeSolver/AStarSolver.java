@@ -0,0 +1,107 @@
+package mazeSolver;
+
+import java.util.*;
+
+import maze.Maze;
+import maze.MazeGrid;
+import maze.ProgressSampler;
+
+/**
+ * Implements A* search, which finds a shortest path while exploring cells closer to
+ * the exit first. Mostly useful on mazes with loops, where breadth first search
+ * would spread out in every direction.
+ * Works on maze.grid() with primitive arrays only, and follows tunnels in tunnel mazes.
+ */
+public class AStarSolver implements MazeSolver {
+  boolean solved = false;
+  int explored = 0;
+  // cells on the shortest path from entrance to exit, empty until solved
+  int[] path = new int[0];
+  // makes the heuristic for each search
+  Heuristic.Factory heuristics;
+
+  public AStarSolver() {
+    this(Heuristic.BY_TYPE);
+  }
+
+  public AStarSolver(Heuristic.Factory heuristics) {
+    this.heuristics = heuristics;
+  }
+
+  @Override
+  public void solveMaze(Maze maze) {
+    MazeGrid grid = maze.grid();
+    int start = grid.entrance();
+    int end = grid.exit();
+    Heuristic heuristic = heuristics.create(grid, end);
+
+    // steps[cell] is the fewest steps found so far from the entrance, -1 if not reached yet
+    int[] steps = new int[grid.numCells()];
+    Arrays.fill(steps, -1);
+    int[] parent = new int[grid.numCells()];
+    boolean[] closed = new boolean[grid.numCells()];
+    int[] next = new int[Maze.NUM_DIR + 1]; // reusable buffer of open neighbours and a tunnel
+
+    // queue of cells ordered by steps + estimate, packed as (priority << 32) | cell.
+    // Cells are queued again when a shorter way is found and stale entries are skipped
+    LongHeap open = new LongHeap(1024);
+    ProgressSampler progress = new ProgressSampler(this, grid.numCells());
+    steps[start] = 0;
+    parent[start] = start;
+    open.add(((long) heuristic.estimate(start) << 32) | start);
+
+    while (!open.isEmpty()) {
+      int cell = (int) open.poll();
+      if (closed[cell])
+        continue;
+      closed[cell] = true;
+      grid.drawFtPrt(cell); //draw dot on each expanded cell
+      if ((++explored & ProgressSampler.SAMPLE_MASK) == 0)
+        progress.sample(explored, open.size(), -1, -1);
+
+      if (cell == end) {
+        solved = true;
+        break;
+      }
+
+      int numNext = grid.passages(cell, next);
+      int other = grid.tunnelTo(cell);
+      if (other >= 0)
+        next[numNext++] = other;
+      for (int i = 0; i < numNext; i++) {
+        int neighbour = next[i];
+        int newSteps = steps[cell] + 1;
+        if (!closed[neighbour] && (steps[neighbour] < 0 || newSteps < steps[neighbour])) {
+          steps[neighbour] = newSteps;
+          parent[neighbour] = cell;
+          open.add(((long) (newSteps + heuristic.estimate(neighbour)) << 32) | neighbour);
+        }
+      }
+    }
+
+    progress.sample(explored, open.size(), -1, -1);
+
+    if (solved)
+      path = BreadthFirstSolver.buildPath(parent, start, end);
+  } // end of solveMaze()
+
+  /**
+   * Use after solveMaze(maze) to get the shortest path found.
+   * @return Cell indices from entrance to exit, see maze.grid() for their row and column.
+   * Empty if the maze was not solved.
+   */
+  public int[] getPath() {
+    return path;
+  } // end of getPath()
+
+  @Override
+  public boolean isSolved() {
+    return solved;
+  } // end if isSolved()
+
+  @Override
+  public int cellsExplored() {
+    return explored;
+  } // end of cellsExplored()
+
+} // end of class AStarSolver
@@ -0,0 +1,131 @@
+package mazeSolver;
+
+import java.util.*;
+
+import maze.Maze;
+import maze.MazeGrid;
+import maze.ProgressSampler;
+
+/**
+ * Implements bidirectional breadth first search. One search starts from the entrance
+ * and one from the exit, and whichever has the smaller frontier expands a whole level
+ * until a cell reaches a cell already claimed by the other search.
+ * Works on maze.grid() with primitive arrays only, and follows tunnels in tunnel mazes.
+ */
+public class BiDirectionalBFSSolver implements MazeSolver {
+  boolean solved = false;
+  int explored = 0;
+  // cells on the path from entrance to exit, empty until solved
+  int[] path = new int[0];
+
+  // which search has reached each cell
+  private final static byte NONE = 0;
+  private final static byte FROM_START = 1;
+  private final static byte FROM_END = 2;
+
+  @Override
+  public void solveMaze(Maze maze) {
+    MazeGrid grid = maze.grid();
+    int start = grid.entrance();
+    int end = grid.exit();
+
+    // owner[cell] is the search that reached the cell, parent[cell] the cell it was reached from
+    byte[] owner = new byte[grid.numCells()];
+    int[] parent = new int[grid.numCells()];
+    int[] next = new int[Maze.NUM_DIR + 1]; // reusable buffer of open neighbours and a tunnel
+    IntQueue startFrontier = new IntQueue(1024);
+    IntQueue endFrontier = new IntQueue(1024);
+    ProgressSampler progress = new ProgressSampler(this, grid.numCells());
+
+    owner[start] = FROM_START;
+    parent[start] = start;
+    startFrontier.add(start);
+    owner[end] = FROM_END;
+    parent[end] = end;
+    endFrontier.add(end);
+
+    if (start == end) {
+      grid.drawFtPrt(start);
+      explored++;
+      solved = true;
+      path = new int[] { start };
+      return;
+    }
+
+    while (!startFrontier.isEmpty() && !endFrontier.isEmpty()) {
+      // expand one whole level of the smaller frontier
+      boolean fromStart = startFrontier.size() <= endFrontier.size();
+      IntQueue frontier = fromStart ? startFrontier : endFrontier;
+      byte side = fromStart ? FROM_START : FROM_END;
+      byte otherSide = fromStart ? FROM_END : FROM_START;
+
+      for (int levelSize = frontier.size(); levelSize > 0; levelSize--) {
+        int cell = frontier.poll();
+        grid.drawFtPrt(cell); //draw dot on each explored cell
+        if ((++explored & ProgressSampler.SAMPLE_MASK) == 0)
+          progress.sample(explored, startFrontier.size() + endFrontier.size(), -1, -1);
+
+        int numNext = grid.passages(cell, next);
+        int other = grid.tunnelTo(cell);
+        if (other >= 0)
+          next[numNext++] = other;
+        for (int i = 0; i < numNext; i++) {
+          int neighbour = next[i];
+          if (owner[neighbour] == NONE) {
+            owner[neighbour] = side;
+            parent[neighbour] = cell;
+            frontier.add(neighbour);
+          }
+          else if (owner[neighbour] == otherSide) {
+            // the searches meet between cell and neighbour, draw a dot to link their footprints
+            grid.drawFtPrt(neighbour);
+            explored++;
+            solved = true;
+            if (fromStart)
+              path = joinPaths(parent, start, cell, neighbour, end);
+            else
+              path = joinPaths(parent, start, neighbour, cell, end);
+            progress.sample(explored, startFrontier.size() + endFrontier.size(), -1, -1);
+            return;
+          }
+        }
+      }
+    }
+    progress.sample(explored, startFrontier.size() + endFrontier.size(), -1, -1);
+  } // end of solveMaze()
+
+  // path from start to startSide via parents, then from endSide to end via parents
+  private int[] joinPaths(int[] parent, int start, int startSide, int endSide, int end) {
+    int[] first = BreadthFirstSolver.buildPath(parent, start, startSide);
+    int[] second = BreadthFirstSolver.buildPath(parent, end, endSide);
+    int[] cells = new int[first.length + second.length];
+    System.arraycopy(first, 0, cells, 0, first.length);
+    // second runs from end to endSide, reverse it onto the end of the path
+    for (int i = 0; i < second.length; i++)
+      cells[first.length + i] = second[second.length - 1 - i];
+
+    return cells;
+  } // end of joinPaths()
+
+  /**
+   * Use after solveMaze(maze) to get the path found. In a perfect maze this is the only path,
+   * in a maze with loops it is the first one found where the searches meet, which can be a
+   * step or two longer than the shortest.
+   * @return Cell indices from entrance to exit, see maze.grid() for their row and column.
+   * Empty if the maze was not solved.
+   */
+  public int[] getPath() {
+    return path;
+  } // end of getPath()
+
+  @Override
+  public boolean isSolved() {
+    return solved;
+  } // end if isSolved()
+
+  @Override
+  public int cellsExplored() {
+    return explored;
+  } // end of cellsExplored()
+
+} // end of class BiDirectionalBFSSolver
@@ -0,0 +1,100 @@
+package mazeSolver;
+
+import java.util.*;
+
+import maze.Maze;
+import maze.MazeGrid;
+import maze.ProgressSampler;
+
+/**
+ * Implements breadth first search, which finds a shortest path from the entrance to the exit.
+ * Works on maze.grid() with primitive arrays only, and follows tunnels in tunnel mazes.
+ */
+public class BreadthFirstSolver implements MazeSolver {
+  boolean solved = false;
+  int explored = 0;
+  // cells on the shortest path from entrance to exit, empty until solved
+  int[] path = new int[0];
+
+  @Override
+  public void solveMaze(Maze maze) {
+    MazeGrid grid = maze.grid();
+    int start = grid.entrance();
+    int end = grid.exit();
+
+    // parent[cell] is the cell it was reached from, -1 if not reached yet
+    int[] parent = new int[grid.numCells()];
+    Arrays.fill(parent, -1);
+    IntQueue queue = new IntQueue(1024);
+    int[] next = new int[Maze.NUM_DIR + 1]; // reusable buffer of open neighbours and a tunnel
+    ProgressSampler progress = new ProgressSampler(this, grid.numCells());
+
+    parent[start] = start;
+    queue.add(start);
+
+    while (!queue.isEmpty()) {
+      int cell = queue.poll();
+      grid.drawFtPrt(cell); //draw dot on each explored cell
+      if ((++explored & ProgressSampler.SAMPLE_MASK) == 0)
+        progress.sample(explored, queue.size(), -1, -1);
+
+      if (cell == end) {
+        solved = true;
+        break;
+      }
+
+      // queue every open neighbour not reached yet, plus the other end of any tunnel
+      int numNext = grid.passages(cell, next);
+      int other = grid.tunnelTo(cell);
+      if (other >= 0)
+        next[numNext++] = other;
+      for (int i = 0; i < numNext; i++) {
+        if (parent[next[i]] < 0) {
+          parent[next[i]] = cell;
+          queue.add(next[i]);
+        }
+      }
+    }
+
+    progress.sample(explored, queue.size(), -1, -1);
+
+    if (solved)
+      path = buildPath(parent, start, end);
+  } // end of solveMaze()
+
+  // follow parents back from the exit, then reverse so the path starts at the entrance
+  static int[] buildPath(int[] parent, int start, int end) {
+    int length = 1;
+    for (int cell = end; cell != start; cell = parent[cell])
+      length++;
+
+    int[] cells = new int[length];
+    int cell = end;
+    for (int i = length - 1; i >= 0; i--) {
+      cells[i] = cell;
+      cell = parent[cell];
+    }
+
+    return cells;
+  } // end of buildPath()
+
+  /**
+   * Use after solveMaze(maze) to get the shortest path found.
+   * @return Cell indices from entrance to exit, see maze.grid() for their row and column.
+   * Empty if the maze was not solved.
+   */
+  public int[] getPath() {
+    return path;
+  } // end of getPath()
+
+  @Override
+  public boolean isSolved() {
+    return solved;
+  } // end if isSolved()
+
+  @Override
+  public int cellsExplored() {
+    return explored;
+  } // end of cellsExplored()
+
+} // end of class BreadthFirstSolver
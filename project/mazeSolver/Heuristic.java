@@ -0,0 +1,141 @@
+package mazeSolver;
+
+import maze.Maze;
+import maze.MazeGrid;
+
+/**
+ * Estimate of the number of steps from a cell to the goal, used by AStarSolver.
+ * A heuristic must never overestimate for A* to find a shortest path.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+public interface Heuristic {
+
+  /**
+   * @param cell Index of the cell.
+   * @return Lower bound on the number of steps from the cell to the goal.
+   */
+  public int estimate(int cell);
+
+
+  /**
+   * Makes the heuristic for one search, as it may depend on the maze and goal.
+   */
+  public interface Factory {
+    /**
+     * @param grid Maze being searched.
+     * @param goal Index of the goal cell.
+     * @return Heuristic towards the goal.
+     */
+    public Heuristic create(MazeGrid grid, int goal);
+  } // end of interface Factory
+
+
+  /**
+   * Most tunnel ends scanned per estimate in withTunnels(). With more tunnels
+   * the distance to the nearest one is taken as 0, which still never overestimates.
+   */
+  public final static int MAX_TUNNELS_SCANNED = 32;
+
+
+  /**
+   * No estimate at all, A* then explores like breadth first search.
+   */
+  public final static Factory NONE = (grid, goal) -> cell -> 0;
+
+  /**
+   * Manhattan distance, exact for a square maze with no walls.
+   */
+  public final static Factory MANHATTAN = (grid, goal) -> cell -> manhattan(grid, cell, goal);
+
+  /**
+   * Hexagon distance, exact for a hex maze with no walls.
+   */
+  public final static Factory HEX_DISTANCE = (grid, goal) -> cell -> hexDistance(grid, cell, goal);
+
+  /**
+   * Manhattan distance, allowing for a shortcut through any tunnel of the maze.
+   */
+  public final static Factory TUNNEL = (grid, goal) -> withTunnels(grid, goal);
+
+  /**
+   * The heuristic suited to the type of the maze.
+   */
+  public final static Factory BY_TYPE = (grid, goal) -> {
+    switch (grid.type()) {
+    case Maze.HEX:
+      return HEX_DISTANCE.create(grid, goal);
+    case Maze.TUNNEL:
+      return TUNNEL.create(grid, goal);
+    default:
+      return MANHATTAN.create(grid, goal);
+    }
+  };
+
+
+  /**
+   * @return Fewest steps between two cells of a square maze ignoring walls.
+   */
+  public static int manhattan(MazeGrid grid, int a, int b) {
+    return Math.abs(grid.row(a) - grid.row(b)) + Math.abs(grid.col(a) - grid.col(b));
+  } // end of manhattan()
+
+
+  /**
+   * @return Fewest steps between two cells of a hex maze ignoring walls.
+   */
+  public static int hexDistance(MazeGrid grid, int a, int b) {
+    // work in the shifted columns of HexMaze.map, where the six moves are
+    // (0, +-1), (+1, +1), (+1, 0), (-1, -1) and (-1, 0)
+    int ra = grid.row(a);
+    int rb = grid.row(b);
+    int dr = rb - ra;
+    int dc = (grid.col(b) + (rb + 1) / 2) - (grid.col(a) + (ra + 1) / 2);
+    if ((dr >= 0) == (dc >= 0))
+      return Math.max(Math.abs(dr), Math.abs(dc));
+    return Math.abs(dr) + Math.abs(dc);
+  } // end of hexDistance()
+
+
+  /**
+   * Manhattan distance, or the cheapest way of walking to a tunnel, taking it and
+   * walking from the best placed tunnel end to the goal, whichever is smaller.
+   * Any path using tunnels walks to a first tunnel end, takes at least one step through
+   * a tunnel and then walks from some tunnel end to the goal, so this never overestimates.
+   */
+  public static Heuristic withTunnels(MazeGrid grid, int goal) {
+    // collect every tunnel end and the distance from the nearest one to the goal
+    int numEnds = 0;
+    int n = grid.numCells();
+    for (int cell = 0; cell < n; cell++)
+      if (grid.tunnelTo(cell) >= 0)
+        numEnds++;
+    if (numEnds == 0)
+      return MANHATTAN.create(grid, goal);
+
+    int ends[] = new int[numEnds];
+    int best = Integer.MAX_VALUE;
+    numEnds = 0;
+    for (int cell = 0; cell < n; cell++) {
+      if (grid.tunnelTo(cell) >= 0) {
+        ends[numEnds++] = cell;
+        best = Math.min(best, manhattan(grid, cell, goal));
+      }
+    }
+    final int endToGoal = best;
+    final boolean scanEnds = numEnds <= MAX_TUNNELS_SCANNED;
+
+    return cell -> {
+      int direct = manhattan(grid, cell, goal);
+      int toEnd = 0;
+      if (scanEnds) {
+        toEnd = Integer.MAX_VALUE;
+        for (int end : ends)
+          toEnd = Math.min(toEnd, manhattan(grid, cell, end));
+      }
+      return Math.min(direct, toEnd + 1 + endToGoal);
+    };
+  } // end of withTunnels()
+
+} // end of interface Heuristic
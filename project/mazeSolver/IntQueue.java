@@ -0,0 +1,55 @@
+package mazeSolver;
+
+/**
+ * First in first out queue of ints in a ring buffer, doubling in size when full.
+ * Used by the breadth first solvers so that no object is created per cell.
+ */
+class IntQueue {
+  private int items[];
+  private int head = 0;
+  private int size = 0;
+
+  /**
+   * @param capacity Initial capacity, rounded up to a power of two.
+   */
+  IntQueue(int capacity) {
+    items = new int[Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1];
+  } // end of IntQueue()
+
+  boolean isEmpty() {
+    return size == 0;
+  } // end of isEmpty()
+
+  int size() {
+    return size;
+  } // end of size()
+
+  void add(int item) {
+    if (size == items.length)
+      grow();
+    items[(head + size) & (items.length - 1)] = item;
+    size++;
+  } // end of add()
+
+  int poll() {
+    int item = items[head];
+    head = (head + 1) & (items.length - 1);
+    size--;
+    return item;
+  } // end of poll()
+
+  void clear() {
+    head = 0;
+    size = 0;
+  } // end of clear()
+
+  // copy the items in order into a buffer twice the size
+  private void grow() {
+    int bigger[] = new int[items.length * 2];
+    for (int i = 0; i < size; i++)
+      bigger[i] = items[(head + i) & (items.length - 1)];
+    items = bigger;
+    head = 0;
+  } // end of grow()
+
+} // end of class IntQueue
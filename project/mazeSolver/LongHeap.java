@@ -0,0 +1,67 @@
+package mazeSolver;
+
+/**
+ * Binary min-heap of long keys, doubling in size when full.
+ * Used by the A* solver with keys packing a priority and a cell index,
+ * so that no object is created per queued cell.
+ */
+class LongHeap {
+  private long keys[];
+  private int size = 0;
+
+  /**
+   * @param capacity Initial capacity.
+   */
+  LongHeap(int capacity) {
+    keys = new long[Math.max(capacity, 1)];
+  } // end of LongHeap()
+
+  boolean isEmpty() {
+    return size == 0;
+  } // end of isEmpty()
+
+  int size() {
+    return size;
+  } // end of size()
+
+  void add(long key) {
+    if (size == keys.length) {
+      long bigger[] = new long[keys.length * 2];
+      System.arraycopy(keys, 0, bigger, 0, size);
+      keys = bigger;
+    }
+
+    // sift up from the new leaf
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (keys[parent] <= key)
+        break;
+      keys[i] = keys[parent];
+      i = parent;
+    }
+    keys[i] = key;
+  } // end of add()
+
+  long poll() {
+    long min = keys[0];
+    long key = keys[--size];
+
+    // sift the last leaf down from the root
+    int i = 0;
+    int half = size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      if (child + 1 < size && keys[child + 1] < keys[child])
+        child++;
+      if (key <= keys[child])
+        break;
+      keys[i] = keys[child];
+      i = child;
+    }
+    keys[i] = key;
+
+    return min;
+  } // end of poll()
+
+} // end of class LongHeap
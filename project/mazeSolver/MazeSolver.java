@@ -18,6 +18,17 @@ public interface MazeSolver
   public abstract void solveMaze(Maze maze);
 
 
+  /**
+   * Same as solveMaze(maze), but every random choice is drawn from one generator seeded
+   * with seed, so runs can be repeated. Solvers making no random choices needn't override it.
+   * @param maze The maze to solve.
+   * @param seed Seed of the random generator used for the whole run.
+   */
+  default public void solveMaze(Maze maze, long seed) {
+    solveMaze(maze);
+  } // end of solveMaze()
+
+
   /**
    * Use after solveMaze(maze), to check whether the maze is solved.
    * @return True if solved. Otherwise false.
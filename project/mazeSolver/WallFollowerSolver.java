@@ -3,10 +3,17 @@ package mazeSolver;
 import java.util.*;
 
 import maze.Maze;
-import maze.Cell;
+import maze.MazeGrid;
+import maze.ProgressSampler;
 
 /**
- * Implements WallFollowerSolver
+ * Implements WallFollowerSolver, keeping its right hand on the wall.
+ * Turn orders come from fixed tables so nothing is allocated per step.
+ * A tunnel is one more way out of the cells at its ends, with its own place in the turn
+ * order, so in a perfect maze the follower tours every passage and tunnel and always reaches
+ * the exit. A maze with loops through tunnels can make it circle forever instead; it stops and
+ * reports the maze unsolved as soon as it finds itself somewhere it has already been, facing
+ * the same way.
  */
 
 public class WallFollowerSolver implements MazeSolver {
@@ -14,133 +21,111 @@ public class WallFollowerSolver implements MazeSolver {
   boolean solved = false;
   int explored = 0;
 
+  // way out through the tunnel of a cell, taken as a direction after the six real ones
+  private final static int TUNNEL = Maze.NUM_DIR;
+
+  // TURNS[facing][rank] is the rank-th way out to try when facing a direction, or having come
+  // out of a tunnel: sharpest right first, then straight on, then left, and turning back last.
+  // Every row keeps one cyclic order of the ways out of a cell, with the tunnel between west
+  // and the southern directions, so the follower walks around every junction the same way
+  private final static int[][] SQUARE_TURNS = new int[Maze.NUM_DIR + 1][];
+  private final static int[][] HEX_TURNS = new int[Maze.NUM_DIR + 1][];
+  static {
+    SQUARE_TURNS[Maze.EAST] = new int[] { TUNNEL, Maze.SOUTH, Maze.EAST, Maze.NORTH, Maze.WEST };
+    SQUARE_TURNS[Maze.NORTH] = new int[] { Maze.EAST, Maze.NORTH, Maze.WEST, TUNNEL, Maze.SOUTH };
+    SQUARE_TURNS[Maze.WEST] = new int[] { Maze.NORTH, Maze.WEST, TUNNEL, Maze.SOUTH, Maze.EAST };
+    SQUARE_TURNS[Maze.SOUTH] = new int[] { Maze.WEST, TUNNEL, Maze.SOUTH, Maze.EAST, Maze.NORTH };
+    SQUARE_TURNS[TUNNEL] = new int[] { Maze.SOUTH, Maze.EAST, Maze.NORTH, Maze.WEST, TUNNEL };
+
+    HEX_TURNS[Maze.EAST] = new int[] { TUNNEL, Maze.SOUTHWEST, Maze.SOUTHEAST, Maze.EAST, Maze.NORTHEAST, Maze.NORTHWEST, Maze.WEST };
+    HEX_TURNS[Maze.NORTHEAST] = new int[] { Maze.SOUTHEAST, Maze.EAST, Maze.NORTHEAST, Maze.NORTHWEST, Maze.WEST, TUNNEL, Maze.SOUTHWEST };
+    HEX_TURNS[Maze.NORTHWEST] = new int[] { Maze.EAST, Maze.NORTHEAST, Maze.NORTHWEST, Maze.WEST, TUNNEL, Maze.SOUTHWEST, Maze.SOUTHEAST };
+    HEX_TURNS[Maze.WEST] = new int[] { Maze.NORTHEAST, Maze.NORTHWEST, Maze.WEST, TUNNEL, Maze.SOUTHWEST, Maze.SOUTHEAST, Maze.EAST };
+    HEX_TURNS[Maze.SOUTHWEST] = new int[] { Maze.NORTHWEST, Maze.WEST, TUNNEL, Maze.SOUTHWEST, Maze.SOUTHEAST, Maze.EAST, Maze.NORTHEAST };
+    HEX_TURNS[Maze.SOUTHEAST] = new int[] { Maze.WEST, TUNNEL, Maze.SOUTHWEST, Maze.SOUTHEAST, Maze.EAST, Maze.NORTHEAST, Maze.NORTHWEST };
+    HEX_TURNS[TUNNEL] = new int[] { Maze.SOUTHWEST, Maze.SOUTHEAST, Maze.EAST, Maze.NORTHEAST, Maze.NORTHWEST, Maze.WEST, TUNNEL };
+  }
+
   @Override
   public void solveMaze(Maze maze) {
-    int colSize = maze.sizeC; //get the correct size depending on maze type
-    if (maze.type == Maze.HEX)
-      colSize += (maze.sizeR+1) / 2;
-    boolean[][] visited = new boolean[maze.sizeR][colSize]; //visited array
-    Cell curr = maze.entrance; //set the current to the entrance cell
-    int facing = getStartFace(curr); //pick a random start direction to face
-    maze.drawFtPrt(maze.entrance); //draw dot at start
-    visited[curr.r][curr.c] = true; //set visited to true
+    solveMaze(maze, new SplittableRandom().nextLong());
+  } // end of solveMaze()
+
+  @Override
+  public void solveMaze(Maze maze, long seed) {
+    MazeGrid grid = maze.grid();
+    int[][] turns = (grid.type() == Maze.HEX) ? HEX_TURNS : SQUARE_TURNS;
+    // seen[cell] has a bit set for each facing, or TUNNEL, the cell was left in.
+    // Only a maze with loops can bring the follower back to one of these
+    short[] seen = new short[grid.numCells()];
+    int curr = grid.entrance(); //set the current to the entrance cell
+    int facing = getStartFace(grid, curr, new SplittableRandom(seed)); //pick a random start direction to face
+    // progress reported to JFR, a backtrack is turning back out of a dead end
+    ProgressSampler progress = new ProgressSampler(this, grid.numCells());
+    int steps = 0;
+    int backtracks = 0;
+    grid.drawFtPrt(curr); //draw dot at start
     explored++; //increment explored nodes
 
-    while (!solved) { //solver loop until solved
-      int[] priority; //priority direction array
-      if (maze.type == Maze.NORMAL || maze.type == Maze.TUNNEL) {
-        priority = new int[4]; //normal maze priority
-        switch (facing) { //depending where it's facing change priorities
-          case Maze.NORTH:
-            priority[0] = Maze.EAST;
-            priority[1] = Maze.NORTH;
-            priority[2] = Maze.WEST;
-            priority[3] = Maze.SOUTH;
-            break;
-          case Maze.SOUTH:
-            priority[0] = Maze.WEST;
-            priority[1] = Maze.SOUTH;
-            priority[2] = Maze.EAST;
-            priority[3] = Maze.NORTH;
-            break;
-          case Maze.EAST:
-            priority[0] = Maze.SOUTH;
-            priority[1] = Maze.EAST;
-            priority[2] = Maze.NORTH;
-            priority[3] = Maze.WEST;
-            break;
-          case Maze.WEST:
-            priority[0] = Maze.NORTH;
-            priority[1] = Maze.WEST;
-            priority[2] = Maze.SOUTH;
-            priority[3] = Maze.EAST;
-            break;
-        }
-      } else { //NOTE: hex maze solver doesn't work
-        priority = new int[6]; //hex maze priority
-        switch (facing) { //depending where it's facing change priorities
-          case Maze.NORTHEAST:
-            priority[0] = Maze.EAST;
-            priority[1] = Maze.NORTHEAST;
-            priority[2] = Maze.SOUTHEAST;
-            priority[3] = Maze.NORTHWEST;
-            priority[4] = Maze.WEST;
-            priority[5] = Maze.SOUTHWEST;
-            break;
-          case Maze.SOUTHWEST:
-            priority[0] = Maze.WEST;
-            priority[1] = Maze.SOUTHWEST;
-            priority[2] = Maze.NORTHWEST;
-            priority[3] = Maze.SOUTHEAST;
-            priority[4] = Maze.EAST;
-            priority[5] = Maze.NORTHEAST;
-            break;
-          case Maze.NORTHWEST:
-            priority[0] = Maze.NORTHEAST;
-            priority[1] = Maze.NORTHWEST;
-            priority[2] = Maze.EAST;
-            priority[3] = Maze.WEST;
-            priority[4] = Maze.SOUTHWEST;
-            priority[5] = Maze.SOUTHEAST;
-            break;
-          case Maze.SOUTHEAST:
-            priority[0] = Maze.SOUTHWEST;
-            priority[1] = Maze.SOUTHEAST;
-            priority[2] = Maze.WEST;
-            priority[3] = Maze.EAST;
-            priority[4] = Maze.NORTHEAST;
-            priority[5] = Maze.NORTHWEST;
-            break;
-          case Maze.EAST:
-            priority[0] = Maze.SOUTHEAST;
-            priority[1] = Maze.EAST;
-            priority[2] = Maze.SOUTHWEST;
-            priority[3] = Maze.NORTHEAST;
-            priority[4] = Maze.NORTHWEST;
-            priority[5] = Maze.WEST;
-            break;
-          case Maze.WEST:
-            priority[0] = Maze.NORTHWEST;
-            priority[1] = Maze.WEST;
-            priority[2] = Maze.NORTHEAST;
-            priority[3] = Maze.SOUTHWEST;
-            priority[4] = Maze.SOUTHEAST;
-            priority[5] = Maze.EAST;
-            break;
-        }
+    while (curr != grid.exit()) { //solver loop until solved or stuck
+      if ((++steps & ProgressSampler.SAMPLE_MASK) == 0)
+        progress.sample(explored, -1, -1, backtracks);
+      int state = 1 << facing;
+      if ((seen[curr] & state) != 0) { //been here facing this way before, walking in a loop
+        progress.sample(explored, -1, -1, backtracks);
+        return;
       }
+      seen[curr] |= state;
 
-      for (int i = 0; i < priority.length; i++) { //loop through priority directions
-        if (curr == maze.exit) { //if reached end
-          solved = true; //solved is true
-          explored++; //add last explored cell
-          break; //end found, break from loop
-        } else if (!curr.wall[priority[i]].present) {
-          facing = priority[i]; //change facing direction
-          maze.drawFtPrt(curr.neigh[priority[i]]); //draw dot on neighbor
-          if (!visited[curr.r][curr.c]) { //visited check
-            visited[curr.r][curr.c] = true; //set visited location to true
-            explored++; //increment explored count
-          }
-          curr = curr.neigh[priority[i]]; //change curr to neighbor
-          break; //cell moved, break from loop
+      // move out the first open way in turn order, the tunnel being one of them
+      int next = -1;
+      int[] order = turns[facing];
+      for (int rank = 0; rank < order.length; rank++) {
+        int dir = order[rank];
+        next = (dir == TUNNEL) ? grid.tunnelTo(curr) : grid.passage(curr, dir);
+        if (next >= 0) {
+          if (rank == order.length - 1) //turned back the way it came
+            backtracks++;
+          facing = dir; //change facing direction
+          break;
         }
       }
+      if (next < 0) { //walled in on every side
+        progress.sample(explored, -1, -1, backtracks);
+        return;
+      }
+      curr = next; //change curr to neighbor
+      explored += visit(grid, curr, seen);
     }
+
+    progress.sample(explored, -1, -1, backtracks);
+    solved = curr == grid.exit();
   } // end of solveMaze()
 
-  // random start direction
-  private int getStartFace(Cell start) {
-    Random rand = new Random();
-    List<Integer> randDir = new ArrayList<Integer>(); //list of possible directions
-    for (int i = 0; i < start.wall.length; i++) { //loop through all cell walls
-      if (start.wall[i] != null) { //check for null walls
-        if (!start.wall[i].present && !start.wall[i].drawn) //if no wall exists
-          randDir.add(i); //add to direction list
-      }
-    }
+  // draw a dot on a cell the first time it is stepped on, returns 1 if it was new
+  private int visit(MazeGrid grid, int cell, short[] seen) {
+    if (seen[cell] != 0)
+      return 0;
+    grid.drawFtPrt(cell);
+    return 1;
+  }
 
-    return randDir.get(rand.nextInt(randDir.size())); //return a random direction from list
+  // random start direction among the open ones, any direction if there are none
+  private int getStartFace(MazeGrid grid, int start, SplittableRandom rand) {
+    int[] dirs = (grid.type() == Maze.HEX) ? Maze.hexDir : Maze.squareDir;
+    int numOpen = 0;
+    for (int dir : dirs) //count open directions
+      if (grid.passage(start, dir) >= 0)
+        numOpen++;
+    if (numOpen == 0)
+      return dirs[0];
+
+    int pick = rand.nextInt(numOpen); //pick one of them
+    for (int dir : dirs) {
+      if (grid.passage(start, dir) >= 0 && pick-- == 0)
+        return dir;
+    }
+    return dirs[0];
   }
 
   @Override
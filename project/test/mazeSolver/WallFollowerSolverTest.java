@@ -0,0 +1,72 @@
+package mazeSolver;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import maze.Maze;
+import maze.PackedMaze;
+import maze.TunnelMaze;
+import mazeGenerator.KruskalGenerator;
+
+/**
+ * Regression check for the wall follower on perfect tunnel mazes, which it used to
+ * report unsolved whenever jumping through a tunnel broke its walk around the maze.
+ *
+ * @author Pacific Thai
+ * @author Rei Ito
+ */
+class WallFollowerSolverTest {
+
+  final static int SIZE = 20;
+  final static int NUM_TUNNELS = 3;
+  final static int NUM_SEEDS = 100;
+
+  @Test
+  void solvesPerfectTunnelMazes() {
+    for (long seed = 1; seed <= NUM_SEEDS; seed++)
+      checkSolved(new TunnelMaze(), seed);
+  } // end of solvesPerfectTunnelMazes()
+
+  @Test
+  void solvesPerfectPackedTunnelMazes() {
+    for (long seed = 1; seed <= NUM_SEEDS; seed++)
+      checkSolved(new PackedMaze(Maze.TUNNEL), seed);
+  } // end of solvesPerfectPackedTunnelMazes()
+
+  // generate a perfect tunnel maze from the seed, with tunnels between random distinct cells,
+  // and check the wall follower gets out of it with a valid path
+  private void checkSolved(Maze maze, long seed) {
+    SplittableRandom rand = new SplittableRandom(seed);
+    int[] cells = rand.ints(0, SIZE * SIZE).distinct().limit(2 * NUM_TUNNELS).toArray();
+    List<int[]> tunnels = new ArrayList<int[]>();
+    for (int i = 0; i < cells.length; i += 2)
+      tunnels.add(new int[] { cells[i] / SIZE, cells[i] % SIZE, cells[i + 1] / SIZE, cells[i + 1] % SIZE });
+
+    maze.initMaze(SIZE, SIZE, 0, 0, SIZE - 1, SIZE - 1, tunnels);
+    maze.isVisu = false;
+    new KruskalGenerator().generateMaze(maze, seed);
+    assertTrue(quietly(maze::isPerfect), "maze of seed " + seed + " is not perfect");
+
+    WallFollowerSolver solver = new WallFollowerSolver();
+    solver.solveMaze(maze, seed);
+    assertTrue(solver.isSolved(), "maze of seed " + seed + " is not solved");
+    assertTrue(quietly(maze::validate), "solution of seed " + seed + " is not valid");
+  } // end of checkSolved()
+
+  // the maze checks print their findings, which would bury the test report
+  private boolean quietly(java.util.function.BooleanSupplier check) {
+    PrintStream stdout = System.out;
+    System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    try {
+      return check.getAsBoolean();
+    } finally {
+      System.setOut(stdout);
+    }
+  } // end of quietly()
+
+} // end of class WallFollowerSolverTest